@@ -1,11 +1,32 @@
 package dex;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.discord.CommandQueue;
 import dex.discord.DexCommand;
 import dex.discord.DexListener;
+import dex.discord.RequestDeduplicator;
 import dex.discord.handler.*;
+import dex.discord.respond.ResponseCache;
+import dex.discord.respond.SendScheduler;
+import dex.discord.throttle.BucketLimit;
+import dex.discord.throttle.CommandThrottle;
 import dex.pokemon.DynamicPokeApi;
+import dex.pokemon.EvolutionGraph;
+import dex.pokemon.HolderIndex;
+import dex.pokemon.LearnsetIndex;
+import dex.pokemon.MoveIndex;
+import dex.pokemon.ArtworkArchive;
+import dex.pokemon.ArtworkCache;
 import dex.pokemon.NameCache;
+import dex.pokemon.NatureTable;
+import dex.pokemon.OfficialArtwork;
+import dex.pokemon.PokemonIndexes;
+import dex.pokemon.SilhouetteCache;
+import dex.pokemon.SpriteCache;
+import dex.pokemon.StatIndex;
+import dex.pokemon.TypeChart;
+import dex.util.BackgroundBuild;
 import me.sargunvohra.lib.pokekotlin.client.PokeApi;
 import me.sargunvohra.lib.pokekotlin.client.PokeApiClient;
 import me.sargunvohra.lib.pokekotlin.model.*;
@@ -15,7 +36,16 @@ import sx.blah.discord.api.ClientBuilder;
 import sx.blah.discord.api.IDiscordClient;
 import sx.blah.discord.util.DiscordException;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class DiscordDex
 {
@@ -36,6 +66,57 @@ public class DiscordDex
     private static final NameCache TYPE_ID_CACHE = NameCache.initializeCache(POKEMON_CLIENT::getTypeList);
     private static final NameCache MOVE_ID_CACHE = NameCache.initializeCache(POKEMON_CLIENT::getMoveList);
 
+    // Configure command throttling
+    private static final BucketLimit USER_COMMAND_LIMIT = BucketLimit.of(5, 4, TimeUnit.SECONDS);
+    private static final BucketLimit CHANNEL_COMMAND_LIMIT = BucketLimit.of(15, 1, TimeUnit.SECONDS);
+    private static final BucketLimit GUILD_COMMAND_LIMIT = BucketLimit.of(30, 500, TimeUnit.MILLISECONDS);
+
+    // Identical requests in the same channel are answered once within this window
+    private static final long DUPLICATE_REQUEST_WINDOW_SECONDS = 10;
+    // Past this point nobody is waiting for the answer anymore
+    private static final long COMMAND_TIMEOUT_SECONDS = 15;
+
+    // Rendered replies to lookups are kept up to this size
+    private static final long RESPONSE_CACHE_BYTES = 64 * 1024 * 1024;
+
+    // Artwork is read from this archive if it's been built, and from bundled resources otherwise
+    private static final Path ARTWORK_ARCHIVE = Paths.get("official-artwork.dexart");
+
+    // Renditions of artwork small enough to send are mapped from this archive if it was built with the artwork's, and
+    // are otherwise kept here between runs, with the most used in memory
+    private static final Path ARTWORK_RENDITION_ARCHIVE = Paths.get("official-artwork-renditions.dexart");
+    private static final Path ARTWORK_RENDITION_DIRECTORY = Paths.get("cache", "artwork");
+    private static final long ARTWORK_RENDITION_CACHE_BYTES = 32 * 1024 * 1024;
+
+    // Silhouettes for "Who's that Pokemon?" are kept here between runs, and the most used in memory
+    private static final Path SILHOUETTE_DIRECTORY = Paths.get("cache", "silhouettes");
+    private static final long SILHOUETTE_CACHE_BYTES = 32 * 1024 * 1024;
+
+    // Sprite sheets for !dex are kept here between runs, and the most used in memory
+    private static final Path SPRITE_DIRECTORY = Paths.get("cache", "sprites");
+    private static final long SPRITE_CACHE_BYTES = 16 * 1024 * 1024;
+
+    // Configure command queueing
+    private static final Map<DexCommand.Cost, CommandQueue.LaneSize> COMMAND_LANES =
+            ImmutableMap.<DexCommand.Cost, CommandQueue.LaneSize>builder()
+                    .put(DexCommand.Cost.light, CommandQueue.LaneSize.of(2, 50))
+                    .put(DexCommand.Cost.heavy, CommandQueue.LaneSize.of(4, 20))
+                    .put(DexCommand.Cost.session, CommandQueue.LaneSize.of(4, 4))
+                    .build();
+
+    // Every request to Discord goes through one scheduler, paced per route
+    private static final int SEND_WORKERS = 4;
+
+    // Indexes built at startup crawl the API for minutes at a time, so they get threads of their own
+    private static final int BUILD_THREADS = 4;
+    private static final ScheduledExecutorService BUILDER = Executors.newScheduledThreadPool(BUILD_THREADS,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("background-build-%d")
+                    .setDaemon(true)
+                    .build());
+    // A build that failed, likely because the API was unreachable, is tried again after this long
+    private static final long BUILD_RETRY_MINUTES = 5;
+
     public static void main(final String[] args) {
         LOG.info("discord-dex is starting up...");
 
@@ -48,23 +129,103 @@ public class DiscordDex
         }
 
         // Wire up bot logic
+        final SendScheduler sends = new SendScheduler(SEND_WORKERS);
+        final ResponseCache responseCache = new ResponseCache(sends, RESPONSE_CACHE_BYTES);
+        DYNAMIC_CLIENT.addEvictionListener(responseCache::invalidate);
+        final OfficialArtwork artwork = loadArtwork(ARTWORK_ARCHIVE);
+        final ArtworkCache artworkRenditions = new ArtworkCache(artwork, loadRenditions(ARTWORK_RENDITION_ARCHIVE),
+                ARTWORK_RENDITION_DIRECTORY, ARTWORK_RENDITION_CACHE_BYTES);
+        final SpriteCache sprites = new SpriteCache(SPRITE_DIRECTORY, SPRITE_CACHE_BYTES);
+        final SilhouetteCache silhouettes = new SilhouetteCache(
+                artwork, SILHOUETTE_DIRECTORY, SILHOUETTE_CACHE_BYTES);
+        final Thread prerenderer = new Thread(
+                () -> silhouettes.prerender(SPECIES_ID_CACHE.getAllIds()), "silhouette-prerender");
+        prerenderer.setDaemon(true);
+        prerenderer.start();
+        final BackgroundBuild<NatureTable> natures = buildInBackground("nature table",
+                () -> NatureTable.build(DYNAMIC_CLIENT, NATURE_ID_CACHE));
+        final BackgroundBuild<TypeChart> typeChart = buildInBackground("type chart",
+                () -> TypeChart.build(DYNAMIC_CLIENT, TYPE_ID_CACHE));
+        final BackgroundBuild<MoveIndex> moveIndex = buildInBackground("move index",
+                () -> MoveIndex.build(DYNAMIC_CLIENT, MOVE_ID_CACHE));
+        final BackgroundBuild<EvolutionGraph> evolutions = buildInBackground("evolution graph",
+                () -> EvolutionGraph.build(DYNAMIC_CLIENT, POKEMON_CLIENT::getEvolutionChainList));
+        final BackgroundBuild<PokemonIndexes> pokemonIndexes = buildInBackground("Pokemon indexes",
+                () -> PokemonIndexes.build(DYNAMIC_CLIENT, SPECIES_ID_CACHE));
+        // Pokemon loaded for any other reason refile themselves; ones loaded before the indexes are built are in them
+        DYNAMIC_CLIENT.addLoadListener((type, loaded) -> {
+            if (type == Pokemon.class) {
+                pokemonIndexes.getIfBuilt().ifPresent(indexes -> indexes.update((Pokemon) loaded));
+            }
+        });
+        final BackgroundBuild<StatIndex> statIndex = pokemonIndexes.map("stat index", PokemonIndexes::getStats);
+        final BackgroundBuild<HolderIndex> holders = pokemonIndexes.map("holder index", PokemonIndexes::getHolders);
+        final BackgroundBuild<LearnsetIndex> learnsets = pokemonIndexes.map("learnset index",
+                PokemonIndexes::getLearnsets);
         final Map<DexCommand, Handler> commandResponses =
                 ImmutableMap.<DexCommand, Handler>builder()
-                        .put(DexCommand.help, new HelpHandler())
-                        .put(DexCommand.art, new ArtHandler(SPECIES_ID_CACHE))
-                        .put(DexCommand.nature, new NatureHandler(DYNAMIC_CLIENT, NATURE_ID_CACHE))
-                        .put(DexCommand.dex, new DexHandler(DYNAMIC_CLIENT, SPECIES_ID_CACHE))
-                        .put(DexCommand.ability, new AbilityHandler(DYNAMIC_CLIENT, ABILITY_ID_CACHE))
-                        .put(DexCommand.type, new TypeHandler(DYNAMIC_CLIENT, TYPE_ID_CACHE))
-                        .put(DexCommand.move, new MoveHandler(DYNAMIC_CLIENT, MOVE_ID_CACHE))
-                        .put(DexCommand.wtp, new WtpHandler(client, DYNAMIC_CLIENT, SPECIES_ID_CACHE))
-                        .put(DexCommand.delete, new DeleteHandler())
-                        .put(DexCommand.ket, new KetHandler())
+                        .put(DexCommand.help, new HelpHandler(sends))
+                        .put(DexCommand.art, new ArtHandler(sends, SPECIES_ID_CACHE, artworkRenditions))
+                        .put(DexCommand.nature, new NatureHandler(sends, NATURE_ID_CACHE, natures))
+                        .put(DexCommand.dex, new DexHandler(sends, DYNAMIC_CLIENT, SPECIES_ID_CACHE, responseCache,
+                                sprites, evolutions))
+                        .put(DexCommand.ability, new AbilityHandler(sends, DYNAMIC_CLIENT, ABILITY_ID_CACHE, holders))
+                        .put(DexCommand.type, new TypeHandler(sends, DYNAMIC_CLIENT, TYPE_ID_CACHE, responseCache,
+                                typeChart))
+                        .put(DexCommand.move, new MoveHandler(sends, DYNAMIC_CLIENT, MOVE_ID_CACHE, responseCache,
+                                moveIndex, holders))
+                        .put(DexCommand.team, new TeamHandler(sends, DYNAMIC_CLIENT, SPECIES_ID_CACHE, typeChart))
+                        .put(DexCommand.top, new TopHandler(sends, statIndex))
+                        .put(DexCommand.learns, new LearnsHandler(sends, SPECIES_ID_CACHE, MOVE_ID_CACHE,
+                                learnsets))
+                        .put(DexCommand.wtp, new WtpHandler(sends, client, DYNAMIC_CLIENT, SPECIES_ID_CACHE,
+                                silhouettes, artworkRenditions))
+                        .put(DexCommand.delete, new DeleteHandler(sends))
+                        .put(DexCommand.ket, new KetHandler(sends))
                         .build();
-        final DexListener dexListener = new DexListener(commandResponses);
+        final CommandThrottle throttle = CommandThrottle.withLimits(sends,
+                USER_COMMAND_LIMIT, CHANNEL_COMMAND_LIMIT, GUILD_COMMAND_LIMIT);
+        final RequestDeduplicator deduplicator = new RequestDeduplicator(
+                DUPLICATE_REQUEST_WINDOW_SECONDS, TimeUnit.SECONDS);
+        final CommandQueue queue = CommandQueue.withLanes(COMMAND_LANES);
+        final DexListener dexListener = new DexListener(sends, commandResponses, throttle, deduplicator, queue,
+                TimeUnit.SECONDS.toMillis(COMMAND_TIMEOUT_SECONDS));
         client.getDispatcher().registerListener(dexListener);
     }
 
+    /**
+     * Start building something on the side, retrying for as long as it can't be built
+     */
+    private static <T> BackgroundBuild<T> buildInBackground(final String name, final Supplier<T> builder)
+    {
+        return BackgroundBuild.start(name, builder, BUILDER, BUILD_RETRY_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private static OfficialArtwork loadArtwork(final Path archive)
+    {
+        if (Files.exists(archive)) {
+            try {
+                return OfficialArtwork.fromArchive(archive);
+            } catch (IOException e) {
+                LOG.warn("Could not map the artwork archive {}; falling back to bundled resources.", archive, e);
+            }
+        }
+        return OfficialArtwork.fromResources();
+    }
+
+    private static Optional<ArtworkArchive> loadRenditions(final Path archive)
+    {
+        if (Files.exists(archive)) {
+            try {
+                return Optional.of(ArtworkArchive.open(archive));
+            } catch (IOException e) {
+                LOG.warn("Could not map the artwork rendition archive {}; rendering artwork as it's asked for.",
+                        archive, e);
+            }
+        }
+        return Optional.empty();
+    }
+
     private static IDiscordClient getClient(final String token, final boolean login) throws DiscordException
     {
         // Returns an instance of the Discord client
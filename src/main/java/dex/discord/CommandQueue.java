@@ -0,0 +1,130 @@
+package dex.discord;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AtomicLongMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of admitted commands, with a separate lane for each {@link DexCommand.Cost cost class}
+ *
+ * Each lane has its own workers and its own backlog, so a pile of heavy commands never delays a light one.  A lane
+ * with a full backlog rejects new commands immediately rather than letting their wait grow without bound.
+ */
+public class CommandQueue
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CommandQueue.class);
+
+    private final ImmutableMap<DexCommand.Cost, ThreadPoolExecutor> lanes_;
+    private final AtomicLongMap<DexCommand.Cost> rejectedCounts_ = AtomicLongMap.create();
+
+    private CommandQueue(final ImmutableMap<DexCommand.Cost, ThreadPoolExecutor> lanes)
+    {
+        lanes_ = lanes;
+    }
+
+    /**
+     * @param laneSizes     Workers and backlog for every cost class
+     */
+    public static CommandQueue withLanes(final Map<DexCommand.Cost, LaneSize> laneSizes)
+    {
+        Validate.isTrue(laneSizes.keySet().containsAll(Arrays.asList(DexCommand.Cost.values())),
+                "No lane configured for cost classes: %s",
+                Sets.difference(Sets.newHashSet(DexCommand.Cost.values()), laneSizes.keySet()));
+
+        final ImmutableMap.Builder<DexCommand.Cost, ThreadPoolExecutor> lanes = ImmutableMap.builder();
+        for (final Map.Entry<DexCommand.Cost, LaneSize> lane : laneSizes.entrySet()) {
+            final LaneSize size = lane.getValue();
+            LOG.info("Queueing {} commands on {} workers with a backlog of {}.",
+                    lane.getKey(), size.getWorkers(), size.getBacklog());
+            lanes.put(lane.getKey(), new ThreadPoolExecutor(size.getWorkers(), size.getWorkers(),
+                    0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(size.getBacklog()),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat(String.format("%s-command-%%d", lane.getKey()))
+                            .setDaemon(true)
+                            .build(),
+                    new ThreadPoolExecutor.AbortPolicy()));
+        }
+        return new CommandQueue(lanes.build());
+    }
+
+    /**
+     * Queue work for a command on its cost class's lane
+     * @return  false if the lane's backlog is full and the work was rejected
+     */
+    public boolean trySubmit(final DexCommand command, final Runnable work)
+    {
+        final DexCommand.Cost cost = command.getCost();
+        try {
+            lanes_.get(cost).execute(work);
+            return true;
+        } catch (RejectedExecutionException e) {
+            final long rejected = rejectedCounts_.incrementAndGet(cost);
+            LOG.warn("Rejected command {}: the {} lane is full ({} rejected from that lane so far).",
+                    command, cost, rejected);
+            return false;
+        }
+    }
+
+    /**
+     * Number of commands rejected so far, by cost class
+     */
+    public ImmutableMap<DexCommand.Cost, Long> getRejectedCounts()
+    {
+        return ImmutableMap.copyOf(rejectedCounts_.asMap());
+    }
+
+    /**
+     * Number of commands waiting for a worker, by cost class
+     */
+    public ImmutableMap<DexCommand.Cost, Integer> getBacklogSizes()
+    {
+        final ImmutableMap.Builder<DexCommand.Cost, Integer> backlogs = ImmutableMap.builder();
+        lanes_.forEach((cost, lane) -> backlogs.put(cost, lane.getQueue().size()));
+        return backlogs.build();
+    }
+
+    public static class LaneSize
+    {
+        private final int workers_;
+        private final int backlog_;
+
+        private LaneSize(final int workers, final int backlog)
+        {
+            workers_ = workers;
+            backlog_ = backlog;
+        }
+
+        /**
+         * @param workers   Commands from this lane that can run at once
+         * @param backlog   Commands that can wait for a worker before new ones are rejected
+         */
+        public static LaneSize of(final int workers, final int backlog)
+        {
+            Validate.isTrue(workers > 0, "A lane needs at least one worker!");
+            Validate.isTrue(backlog > 0, "A lane needs room for at least one waiting command!");
+            return new LaneSize(workers, backlog);
+        }
+
+        public int getWorkers()
+        {
+            return workers_;
+        }
+
+        public int getBacklog()
+        {
+            return backlog_;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dex.discord;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recognize the {@link DexCommand} at the start of a message in a single pass over its characters
+ *
+ * Every message the bot can see goes through here, and almost none of them are commands, so the miss path does no
+ * allocation: anything not starting with '!' is rejected on its first non-whitespace character, and everything else
+ * walks a precomputed trie of command names until it falls off.
+ */
+public class CommandRecognizer
+{
+    private static final char COMMAND_PREFIX = '!';
+    // Command names are plain ASCII, so each trie node is a dense table of transitions
+    private static final int ALPHABET_SIZE = 128;
+    private static final int NO_TRANSITION = 0;
+    private static final int ROOT = 0;
+
+    // transitions_[node][character] is the next node, or NO_TRANSITION; the root is never a transition target
+    private final int[][] transitions_;
+    private final DexCommand[] accepted_;
+
+    private CommandRecognizer(final int[][] transitions, final DexCommand[] accepted)
+    {
+        transitions_ = transitions;
+        accepted_ = accepted;
+    }
+
+    /**
+     * Build a recognizer for every command's standard and alternate names
+     */
+    public static CommandRecognizer forAllCommands()
+    {
+        final List<int[]> transitions = new ArrayList<>();
+        final List<DexCommand> accepted = new ArrayList<>();
+        transitions.add(new int[ALPHABET_SIZE]);
+        accepted.add(null);
+
+        for (final DexCommand command : DexCommand.values()) {
+            addName(transitions, accepted, command.name(), command);
+            for (final String alternateName : DexCommand.alternateNames(command)) {
+                addName(transitions, accepted, alternateName, command);
+            }
+        }
+
+        return new CommandRecognizer(transitions.toArray(new int[transitions.size()][]),
+                accepted.toArray(new DexCommand[accepted.size()]));
+    }
+
+    /**
+     * Match a message of the form "!command [arguments]", ignoring leading whitespace
+     */
+    public Optional<DexCommand> recognize(final String message)
+    {
+        final int length = message.length();
+        int index = 0;
+        while (index < length && Character.isWhitespace(message.charAt(index))) {
+            index++;
+        }
+        if (index == length || message.charAt(index) != COMMAND_PREFIX) {
+            return Optional.empty();
+        }
+        return walk(message, index + 1);
+    }
+
+    /**
+     * Match a bare command name, without the '!', such as the argument to "!help"
+     */
+    public Optional<DexCommand> recognizeName(final String name)
+    {
+        return walk(name, 0);
+    }
+
+    /**
+     * Follow the trie from the root along the word starting at an index, up to the next whitespace
+     */
+    private Optional<DexCommand> walk(final String message, final int start)
+    {
+        final int length = message.length();
+        int index = start;
+        int node = ROOT;
+        while (index < length) {
+            final char c = message.charAt(index);
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+            if (c >= ALPHABET_SIZE) {
+                return Optional.empty();
+            }
+            node = transitions_[node][c];
+            if (node == NO_TRANSITION) {
+                return Optional.empty();
+            }
+            index++;
+        }
+
+        // The command word must end exactly on a name; "!dexter" is not "!dex"
+        return Optional.ofNullable(accepted_[node]);
+    }
+
+    private static void addName(final List<int[]> transitions, final List<DexCommand> accepted, final String name,
+            final DexCommand command)
+    {
+        Validate.notEmpty(name, "Cannot recognize a command by an empty name!");
+
+        int node = ROOT;
+        for (final char c : name.toCharArray()) {
+            Validate.isTrue(c < ALPHABET_SIZE && !Character.isWhitespace(c),
+                    "Command name '%s' contains a character that can't be recognized!", name);
+            if (transitions.get(node)[c] == NO_TRANSITION) {
+                transitions.get(node)[c] = transitions.size();
+                transitions.add(new int[ALPHABET_SIZE]);
+                accepted.add(null);
+            }
+            node = transitions.get(node)[c];
+        }
+
+        Validate.isTrue(accepted.get(node) == null, "Command name '%s' is claimed by both %s and %s!",
+                name, accepted.get(node), command);
+        accepted.set(node, command);
+    }
+}
@@ -4,69 +4,84 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Lower-case enums are used to allow case-sensitive matching against String input
  */
 public enum DexCommand
 {
-    help,
-    dex,
-    art,
-    nature,
-    ability,
-    type,
-    move,
-    wtp,
-    delete,
-    ket;
+    help(true, Cost.light),
+    dex(true, Cost.heavy),
+    art(true, Cost.heavy),
+    nature(true, Cost.light),
+    ability(true, Cost.light),
+    type(true, Cost.light),
+    move(true, Cost.light),
+    team(true, Cost.heavy),
+    top(true, Cost.light),
+    learns(true, Cost.light),
+    wtp(false, Cost.session),
+    delete(false, Cost.heavy),
+    ket(false, Cost.heavy);
 
-    private static Multimap<DexCommand, String> alternateNames_ = ImmutableMultimap.<DexCommand, String>builder()
-            .put(wtp, "who's-that-pokemon")
-            .put(wtp, "whos-that-pokemon")
-            .put(art, "official-art")
-            .build();
-
-    public static Optional<DexCommand> optionalValueOf(final String name)
+    /**
+     * How much work a command does, so cheap commands aren't stuck behind expensive ones
+     */
+    public enum Cost
     {
-        try {
-            return Optional.of(DexCommand.valueOf(name));
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
+        // Text built from a single cached lookup
+        light(1),
+        // Image work, several lookups or several Discord calls
+        heavy(2),
+        // Holds its worker for as long as a game runs
+        session(2);
+
+        private final int tokens_;
+
+        Cost(final int tokens)
+        {
+            tokens_ = tokens;
+        }
+
+        /**
+         * Tokens charged against a sender's {@link dex.discord.throttle.CommandThrottle throttle} buckets
+         */
+        public int getTokens()
+        {
+            return tokens_;
         }
     }
 
-    public static Optional<DexCommand> fuzzyMatch(final String name)
+    private final boolean deterministic_;
+    private final Cost cost_;
+
+    DexCommand(final boolean deterministic, final Cost cost)
     {
-        // If the command name matches a command exactly, return it
-        final Optional<DexCommand> exactMatch = optionalValueOf(name);
-        if (exactMatch.isPresent()) {
-            return exactMatch;
-        }
-        // Otherwise try matching any of the alternate names
-        else {
-            for (final Map.Entry<DexCommand, String> entry : alternateNames_.entries()) {
-                if (entry.getValue().equalsIgnoreCase(name)) {
-                    return Optional.of(entry.getKey());
-                }
-            }
-        }
-        return Optional.empty();
+        deterministic_ = deterministic;
+        cost_ = cost;
     }
 
-    public static Collection<String> alternateNames(final DexCommand command)
+    public Cost getCost()
     {
-        return alternateNames_.get(command);
+        return cost_;
     }
 
-    public static Collection<String> allNames()
+    /**
+     * Whether the same arguments always produce the same reply, making repeated requests redundant
+     */
+    public boolean isDeterministic()
     {
-        final List<String> standardNames = Arrays.stream(DexCommand.values())
-                .map(value -> value.name())
-                .collect(Collectors.toList());
-        final Collection<String> alternateNames = alternateNames_.values();
-        return Stream.concat(standardNames.stream(), alternateNames.stream()).collect(Collectors.toList());
+        return deterministic_;
+    }
+
+    private static Multimap<DexCommand, String> alternateNames_ = ImmutableMultimap.<DexCommand, String>builder()
+            .put(wtp, "who's-that-pokemon")
+            .put(wtp, "whos-that-pokemon")
+            .put(art, "official-art")
+            .build();
+
+    public static Collection<String> alternateNames(final DexCommand command)
+    {
+        return alternateNames_.get(command);
     }
 }
@@ -1,18 +1,20 @@
 package dex.discord;
 
-import com.google.common.base.Joiner;
 import dex.discord.handler.Handler;
-import dex.util.ParsingUtils;
+import dex.discord.respond.SendScheduler;
+import dex.discord.throttle.CommandThrottle;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sx.blah.discord.api.events.IListener;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Identify and safely attempt responses to {@link MessageReceivedEvent message events}
@@ -21,28 +23,46 @@ public class DexListener implements IListener<MessageReceivedEvent>
 {
     private static final Logger LOG = LoggerFactory.getLogger(DexListener.class);
 
-    // Construct command-matching regex
-    private static final Joiner PIPE_JOINER = Joiner.on("|");
-    // Matches commands in the format: /command
-    // http://regexr.com/3eeuc
-    private static final String COMMAND_PATTERN = String.format("^!\\b(%s)",
-            PIPE_JOINER.join(DexCommand.allNames())
-    );
-    private static final Pattern COMMAND_MATCHER = Pattern.compile(COMMAND_PATTERN);
+    // Matches commands in the format: !command
+    private static final CommandRecognizer COMMAND_RECOGNIZER = CommandRecognizer.forAllCommands();
+    private static final String BUSY_REPLY = "I'm swamped right now.  Please try again in a bit.";
+    private static final String DUPLICATE_ANSWERED_REPLY = "Someone just asked that; see the answer above.";
+    private static final String DUPLICATE_FAILED_REPLY =
+            "Someone just asked that, and I couldn't answer it.  Please try again in a bit.";
 
+    private final SendScheduler sends_;
     private final Map<DexCommand, Handler> responses_;
+    private final CommandThrottle throttle_;
+    private final RequestDeduplicator deduplicator_;
+    private final CommandQueue queue_;
+    private final long commandTimeoutMillis_;
 
-    public DexListener(final Map<DexCommand, Handler> responses)
+    /**
+     * @param commandTimeoutMillis  How long a command may take, including time spent queued, before its response is
+     *                              abandoned
+     */
+    public DexListener(final SendScheduler sends, final Map<DexCommand, Handler> responses,
+            final CommandThrottle throttle, final RequestDeduplicator deduplicator, final CommandQueue queue,
+            final long commandTimeoutMillis)
     {
+        Validate.notNull(sends, "Cannot listen for commands without a send scheduler!");
+        Validate.notNull(throttle, "Cannot listen for commands without a throttle!");
+        Validate.notNull(deduplicator, "Cannot listen for commands without a deduplicator!");
+        Validate.notNull(queue, "Cannot listen for commands without a queue to run them on!");
+        Validate.isTrue(commandTimeoutMillis > 0, "Commands must be given some time to complete!");
+        sends_ = sends;
         responses_ = responses;
+        throttle_ = throttle;
+        deduplicator_ = deduplicator;
+        queue_ = queue;
+        commandTimeoutMillis_ = commandTimeoutMillis;
     }
 
     @Override
     public void handle(final MessageReceivedEvent event)
     {
         final String originalMessage = event.getMessage().getContent();
-        final String sanitizedMessage = ParsingUtils.sanitizeMessageContent(originalMessage);
-        final Optional<DexCommand> maybeCommand = parseCommand(sanitizedMessage);
+        final Optional<DexCommand> maybeCommand = COMMAND_RECOGNIZER.recognize(originalMessage);
         if (maybeCommand.isPresent()) {
             final DexCommand command = maybeCommand.get();
             LOG.info("Mapped input {} to command: {}", originalMessage, command);
@@ -50,40 +70,56 @@ public class DexListener implements IListener<MessageReceivedEvent>
             // Try to run whatever handler we've been configured with
             final Handler responder = responses_.get(command);
             Validate.notNull(responder, String.format("Could not find a handler for command %s!", command));
-            responder.safelyRespond(event);
+
+            if (command.isDeterministic()) {
+                // Duplicates share the work of the request that claimed it, and only hear how it went
+                final RequestDeduplicator.Claim claim = deduplicator_.tryClaim(event, command);
+                if (!claim.isOwned()) {
+                    claim.whenFinished().thenAccept(answered -> DiscordUtils.trySendMessage(sends_,
+                            event.getMessage().getChannel(),
+                            answered ? DUPLICATE_ANSWERED_REPLY : DUPLICATE_FAILED_REPLY));
+                    return;
+                }
+                // Only an actual answer absorbs later duplicates; one that was shed or failed leaves them to try again
+                dispatch(event, command, responder, answered -> {
+                    if (answered) {
+                        deduplicator_.release(claim);
+                    } else {
+                        deduplicator_.abandon(claim);
+                    }
+                });
+            } else {
+                dispatch(event, command, responder, answered -> {});
+            }
         }
     }
 
     /**
-     * Parse a message event and return the command it represents, if any
+     * Admit the command and queue it to run
+     * @param onFinished    Given whether the command was answered, once it's run or once it's been turned away
      */
-    private static Optional<DexCommand> parseCommand(final String message)
+    private void dispatch(final MessageReceivedEvent event, final DexCommand command, final Handler responder,
+            final Consumer<Boolean> onFinished)
     {
-        // Parse out the command word
-        final Optional<String> maybeCommand = ParsingUtils.getFirstWord(message);
-        // Short-circuit fail on messages with no command (e.g., "/" alone)
-        if (!maybeCommand.isPresent()) {
-            return Optional.empty();
-        }
-
-        final String command = maybeCommand.get();
-        // Short-circuit fail on messages that aren't commands
-        if (!isCommand(command)) {
-            return Optional.empty();
+        // Shed the command before doing any real work if its sender, channel or guild is over its limit
+        if (!throttle_.tryAdmit(event, command)) {
+            onFinished.accept(false);
+            return;
         }
 
-        // Otherwise return the appropriate command
-        try {
-            final String commandWord = ParsingUtils.getCommandWord(command);
-            return DexCommand.fuzzyMatch(commandWord);
-        } catch (IllegalArgumentException e) {
-            LOG.info("Could not match command {} to any commands in {}", command, Arrays.toString(DexCommand.values()));
-            return Optional.empty();
+        // The clock starts now, so time spent waiting in the queue counts against the command
+        final Deadline deadline = Deadline.after(commandTimeoutMillis_, TimeUnit.MILLISECONDS);
+        final boolean queued = queue_.trySubmit(command, () -> {
+            boolean answered = false;
+            try {
+                answered = responder.safelyRespond(event, deadline);
+            } finally {
+                onFinished.accept(answered);
+            }
+        });
+        if (!queued) {
+            onFinished.accept(false);
+            DiscordUtils.trySendMessage(sends_, event.getMessage().getChannel(), BUSY_REPLY);
         }
     }
-
-    private static boolean isCommand(final String message)
-    {
-        return COMMAND_MATCHER.matcher(message).matches();
-    }
 }
@@ -0,0 +1,195 @@
+package dex.discord;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import dex.util.ParsingUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Collapse identical {@link DexCommand#isDeterministic() deterministic} requests made in the same channel
+ *
+ * The first request for a given (command, arguments, channel) claims the work.  Any identical request that arrives
+ * while it's running, or shortly after it's answered, is absorbed: nothing is fetched, rendered or uploaded twice.
+ * The claimed request's reply lands in the same channel, and each absorbed request is told how the claimed one
+ * finished, so that it can point at that reply or fail along with it.
+ */
+public class RequestDeduplicator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(RequestDeduplicator.class);
+    private static final Joiner SPACE_JOINER = Joiner.on(" ");
+
+    // Completed with whether the claimed request was answered once it finishes
+    private final ConcurrentMap<RequestKey, CompletableFuture<Boolean>> inFlight_ = new ConcurrentHashMap<>();
+    private final Cache<RequestKey, Boolean> recentlyAnswered_;
+    private final AtomicLong absorbedCount_ = new AtomicLong();
+
+    /**
+     * @param window    How long after being answered a request keeps absorbing its duplicates
+     */
+    public RequestDeduplicator(final long window, final TimeUnit unit)
+    {
+        Validate.isTrue(window >= 0, "Cannot deduplicate over a negative window!");
+        Validate.notNull(unit);
+        recentlyAnswered_ = CacheBuilder.newBuilder()
+                .expireAfterWrite(window, unit)
+                .build();
+    }
+
+    /**
+     * Claim the work for a request, unless an identical one already has
+     * @return  An {@link Claim#isOwned() owned} claim to {@link #release(Claim) release} once the request is answered,
+     *          or to {@link #abandon(Claim) abandon} if it isn't; or, if this request is a duplicate, a claim on the
+     *          identical request's outcome
+     */
+    public Claim tryClaim(final MessageReceivedEvent event, final DexCommand command)
+    {
+        final RequestKey key = RequestKey.of(event, command);
+        // Claim first and check for a recent answer second; release() writes in the opposite order, so a request
+        // can't slip between a finishing request's two writes and be answered twice
+        final CompletableFuture<Boolean> finished = new CompletableFuture<>();
+        final CompletableFuture<Boolean> claimed = inFlight_.putIfAbsent(key, finished);
+        if (claimed != null) {
+            absorb(key);
+            return new Claim(key, claimed, false);
+        }
+        if (recentlyAnswered_.getIfPresent(key) != null) {
+            inFlight_.remove(key, finished);
+            // Anything already attached to this claim was attached to the recent answer
+            finished.complete(true);
+            absorb(key);
+            return new Claim(key, finished, false);
+        }
+        return new Claim(key, finished, true);
+    }
+
+    /**
+     * Finish a claimed request that was answered, so that its duplicates keep being absorbed for a while
+     */
+    public void release(final Claim claim)
+    {
+        Validate.isTrue(claim.isOwned(), "Cannot release a claim on another request!");
+        recentlyAnswered_.put(claim.key_, true);
+        inFlight_.remove(claim.key_, claim.finished_);
+        claim.finished_.complete(true);
+    }
+
+    /**
+     * Finish a claimed request that wasn't answered, failing its duplicates along with it, so that the next identical
+     * request does the work itself
+     */
+    public void abandon(final Claim claim)
+    {
+        Validate.isTrue(claim.isOwned(), "Cannot abandon a claim on another request!");
+        inFlight_.remove(claim.key_, claim.finished_);
+        claim.finished_.complete(false);
+    }
+
+    public long getAbsorbedCount()
+    {
+        return absorbedCount_.get();
+    }
+
+    private void absorb(final RequestKey key)
+    {
+        LOG.info("Absorbed duplicate request {} ({} absorbed so far).", key, absorbedCount_.incrementAndGet());
+    }
+
+    /**
+     * A request's share in the work for it and its duplicates: either the work itself, or the outcome of the request
+     * that owns it
+     */
+    public static class Claim
+    {
+        private final RequestKey key_;
+        private final CompletableFuture<Boolean> finished_;
+        private final boolean owned_;
+
+        private Claim(final RequestKey key, final CompletableFuture<Boolean> finished, final boolean owned)
+        {
+            key_ = key;
+            finished_ = finished;
+            owned_ = owned;
+        }
+
+        /**
+         * @return  Whether this request does the work, rather than waiting on an identical one
+         */
+        public boolean isOwned()
+        {
+            return owned_;
+        }
+
+        /**
+         * @return  A future that completes once the owning request finishes, with whether it was answered
+         */
+        public CompletableFuture<Boolean> whenFinished()
+        {
+            return finished_;
+        }
+    }
+
+    /**
+     * Identity of a request: its command, its normalized arguments and the channel it was made in
+     */
+    public static class RequestKey
+    {
+        private final DexCommand command_;
+        private final String arguments_;
+        private final String channelId_;
+
+        private RequestKey(final DexCommand command, final String arguments, final String channelId)
+        {
+            command_ = command;
+            arguments_ = arguments;
+            channelId_ = channelId;
+        }
+
+        static RequestKey of(final MessageReceivedEvent event, final DexCommand command)
+        {
+            final String arguments = SPACE_JOINER.join(
+                    ParsingUtils.parseArguments(event.getMessage().getContent()).stream()
+                            .map(ParsingUtils::comparisonFormat)
+                            .collect(Collectors.toList()));
+            return new RequestKey(command, arguments, event.getMessage().getChannel().getID());
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final RequestKey that = (RequestKey) o;
+            return command_ == that.command_ &&
+                    arguments_.equals(that.arguments_) &&
+                    channelId_.equals(that.channelId_);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(command_, arguments_, channelId_);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("!%s %s in channel %s", command_, arguments_, channelId_);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package dex.discord.handler;
 
 import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
+import dex.discord.respond.Responder;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.DynamicPokeApi;
+import dex.pokemon.HolderIndex;
 import dex.pokemon.NameCache;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.ParsingUtils;
 import dex.util.PrintingUtils;
 import dex.util.ThrowableUtils;
@@ -16,34 +23,118 @@ import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
-public class AbilityHandler extends DexSingleArgumentHandler
+public class AbilityHandler extends BatchLookupHandler
 {
+    // "!ability who intimidate" lists the Pokemon that can have an ability
+    private static final String WHO_ARGUMENT = "who";
+    // Keeps the list to a single message
+    private static final int MAX_HOLDERS_LENGTH = 1500;
+
     private final NameCache abilityIds_;
     private final DynamicPokeApi client_;
+    private final BackgroundBuild<HolderIndex> holders_;
 
-    public AbilityHandler(final DynamicPokeApi client, final NameCache abilityIds)
+    /**
+     * @param holders   Index of who can have each ability, which may still be being built
+     */
+    public AbilityHandler(final SendScheduler sends, final DynamicPokeApi client, final NameCache abilityIds,
+            final BackgroundBuild<HolderIndex> holders)
     {
-        super(DexCommand.ability);
+        super(sends, DexCommand.ability);
         Validate.notNull(client);
         Validate.isTrue(client.getSupportedDataTypes().contains(Ability.class),
                 "Provided PokeAPI client does not support access to Ability objects!");
         Validate.notNull(abilityIds);
+        Validate.notNull(holders);
 
         client_ = client;
         abilityIds_ = abilityIds;
+        holders_ = holders;
+    }
+
+    @Override
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        if (arguments.get(0).equalsIgnoreCase(WHO_ARGUMENT)) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    generateHoldersReply(arguments.subList(1, arguments.size())));
+        } else {
+            super.respondToArguments(event, arguments, deadline);
+        }
     }
 
     @Override
-    void respond(final MessageReceivedEvent event, final String argument) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(final MessageReceivedEvent event, final String argument, final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
         // Construct and send the response
-        final String reply = generateReply(argument);
-        event.getMessage().getChannel().sendMessage(reply);
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), generateReply(argument, deadline));
+    }
+
+    @Override
+    boolean isBatch(final List<String> arguments)
+    {
+        // Asking who has an ability is answered before batching comes into it
+        return true;
+    }
+
+    /**
+     * Fetch every ability at once, so that each lookup finds its ability already cached
+     */
+    @Override
+    void prepareBatch(final List<String> arguments, final Deadline deadline)
+    {
+        client_.getAll(Ability.class, arguments.stream()
+                .map(abilityIds_::getId)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList()), deadline);
+    }
+
+    @Override
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Deadline deadline)
+    {
+        return Responder.simpleResponder(event, generateReply(argument, deadline)).render().join();
+    }
+
+    /**
+     * List the Pokemon that can have an ability, from the holder index
+     */
+    private String generateHoldersReply(final List<String> names)
+    {
+        if (names.isEmpty()) {
+            return String.format("%s\n%s", DiscordUtils.getUnhappyReply(),
+                    HelpHandler.helpResponse(DexCommand.ability));
+        }
+        final String name = names.get(0);
+        final Optional<Integer> maybeId = abilityIds_.getId(name);
+        if (!maybeId.isPresent()) {
+            return String.format("I'm sorry.  I couldn't find %s in my list of Pokemon abilities.",
+                    PrintingUtils.properNoun(name));
+        }
+
+        // Built in the background at startup; it takes a while, so don't make anyone wait on it
+        final Optional<HolderIndex> maybeIndex = holders_.getIfBuilt();
+        if (!maybeIndex.isPresent()) {
+            return notBuiltReply(holders_,
+                    "I'm still sorting out which Pokemon have which abilities.  Please try again in a minute.");
+        }
+        final HolderIndex index = maybeIndex.get();
+
+        final List<String> holders = index.getNames(index.getHolders(maybeId.get()));
+        if (holders.isEmpty()) {
+            return String.format("No Pokemon can have %s.", PrintingUtils.properNoun(name));
+        }
+        return PrintingUtils.style(String.format("%d Pokemon can have %s: %s", holders.size(),
+                PrintingUtils.properNoun(name), PrintingUtils.truncatedList(holders, MAX_HOLDERS_LENGTH)),
+                MessageBuilder.Styles.CODE);
     }
 
-    private String generateReply(final String name)
+    private String generateReply(final String name, final Deadline deadline)
     {
         final Optional<Integer> maybeId = abilityIds_.getId(name);
         if (!maybeId.isPresent()) {
@@ -52,7 +143,7 @@ public class AbilityHandler extends DexSingleArgumentHandler
         }
         final int id = maybeId.get();
 
-        final Optional<Ability> maybeAbility = client_.get(Ability.class, id);
+        final Optional<Ability> maybeAbility = client_.get(Ability.class, id, deadline);
         if (!maybeAbility.isPresent()) {
             return String.format("I'm sorry.  I couldn't get any information about %s (Ability #%d)", name, id);
         }
@@ -3,7 +3,10 @@ package dex.discord.handler;
 import com.google.common.base.Joiner;
 import dex.discord.DexCommand;
 import dex.discord.respond.Responder;
+import dex.discord.respond.SendScheduler;
+import dex.pokemon.ArtworkCache;
 import dex.pokemon.NameCache;
+import dex.util.Deadline;
 import dex.util.DiscordUtils;
 import dex.util.PrintingUtils;
 import dex.util.SpellingSuggester;
@@ -16,7 +19,7 @@ import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,17 +30,20 @@ public class ArtHandler extends DexSingleArgumentHandler
 
     private NameCache speciesIds_;
     private SpellingSuggester speciesNameSuggester_;
+    private ArtworkCache artwork_;
 
-    public ArtHandler(final NameCache speciesIds)
+    public ArtHandler(final SendScheduler sends, final NameCache speciesIds, final ArtworkCache artwork)
     {
-        super(DexCommand.art);
+        super(sends, DexCommand.art);
         Validate.notNull(speciesIds);
+        Validate.notNull(artwork);
         speciesIds_ = speciesIds;
         speciesNameSuggester_ = new SpellingSuggester(speciesIds.getAllNames());
+        artwork_ = artwork;
     }
 
     @Override
-    void respond(MessageReceivedEvent event, String name) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, String name, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
         // Construct response
         final Optional<Integer> maybeId = speciesIds_.getId(name);
@@ -57,20 +63,18 @@ public class ArtHandler extends DexSingleArgumentHandler
                                         .collect(Collectors.toList()))));
             }
 
-            Responder.simpleResponder(event, noIdResponseBuilder.toString()).respond();
+            Responder.simpleResponder(event, noIdResponseBuilder.toString()).respond(sends_);
             return;
         }
         final int id = maybeId.get();
+        deadline.check();
         sendArt(event.getMessage().getChannel(), id);
     }
 
     private void sendArt(final IChannel channel, final int id)
     {
-        final String artName = String.format("official-artwork/%d.png", id);
-        try (final InputStream art = ClassLoader.getSystemClassLoader().getResourceAsStream(artName)) {
-            DiscordUtils.uncheckedSendFile(channel, art);
-        } catch (IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
+        // Streamed straight from the artwork's buffer
+        final ByteBuffer art = artwork_.get(id).orElseThrow(ThrowableUtils.fail("No artwork for species #%d!", id));
+        DiscordUtils.uncheckedSendFile(sends_, channel, art, null);
     }
 }
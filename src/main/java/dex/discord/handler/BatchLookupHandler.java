@@ -0,0 +1,120 @@
+package dex.discord.handler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
+import dex.discord.respond.Responder;
+import dex.discord.respond.SendScheduler;
+import dex.util.Deadline;
+import dex.util.DeadlineExceededException;
+import dex.util.ParsingUtils;
+import dex.util.PrintingUtils;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RateLimitException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Handle a single-argument command that can also look up several names at once
+ *
+ * Lookups of several names, e.g. "!dex sneasel, weavile", are all made at the same time and answered with a single
+ * reply.
+ */
+public abstract class BatchLookupHandler extends DexSingleArgumentHandler
+{
+    // Keeps a batched reply to a message or two
+    static final int MAX_BATCH_SIZE = 6;
+
+    // Each name in a batch is looked up here, all at once
+    private static final ExecutorService BATCH = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("batch-lookup-%d")
+            .setDaemon(true)
+            .build());
+
+    BatchLookupHandler(final SendScheduler sends, final DexCommand command)
+    {
+        super(sends, command);
+    }
+
+    @Override
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        if (arguments.size() > 1 && isBatch(arguments)) {
+            respondToBatch(event, arguments, deadline);
+        } else {
+            respond(event, arguments.get(0), deadline);
+        }
+    }
+
+    /**
+     * @return  Whether the arguments are names to each be looked up, rather than one request in a syntax of the
+     *          command's own
+     */
+    abstract boolean isBatch(final List<String> arguments);
+
+    /**
+     * Build the reply to a lookup without sending it, so it can be sent along with the rest of a batch
+     */
+    abstract RenderedResponse render(final MessageReceivedEvent event, final String argument, final Deadline deadline);
+
+    /**
+     * Get ready to look up every name in a batch, e.g. by fetching them all at once
+     */
+    void prepareBatch(final List<String> arguments, final Deadline deadline)
+    {
+    }
+
+    /**
+     * Look up every name at the same time, and send everything found as one reply
+     */
+    private void respondToBatch(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline)
+    {
+        final List<String> names = arguments.stream()
+                .map(ParsingUtils::comparisonFormat)
+                .distinct()
+                .limit(MAX_BATCH_SIZE)
+                .collect(Collectors.toList());
+        prepareBatch(names, deadline);
+
+        final List<CompletableFuture<RenderedResponse>> lookups = names.stream()
+                .map(name -> CompletableFuture.supplyAsync(() -> render(event, name, deadline), BATCH))
+                .collect(Collectors.toList());
+        final List<RenderedResponse> parts = new ArrayList<>(names.size() + 1);
+        for (int i = 0; i < names.size(); i++) {
+            try {
+                parts.add(deadline.await(lookups.get(i)));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DeadlineExceededException) {
+                    throw (DeadlineExceededException) e.getCause();
+                }
+                // One bad lookup shouldn't cost the others their replies
+                LOG.error("Could not look up {} for message \"{}\"!", names.get(i), event.getMessage().getContent(),
+                        e.getCause());
+                parts.add(note(event, String.format("I'm sorry.  Something went wrong looking up %s.",
+                        PrintingUtils.properNoun(names.get(i)))));
+            }
+        }
+        if (arguments.stream().map(ParsingUtils::comparisonFormat).distinct().count() > MAX_BATCH_SIZE) {
+            parts.add(note(event, String.format("I can only look up %d at a time, so I left off the rest.",
+                    MAX_BATCH_SIZE)));
+        }
+
+        Responder.combine(event, parts).respond(sends_);
+    }
+
+    private static RenderedResponse note(final MessageReceivedEvent event, final String note)
+    {
+        return Responder.simpleResponder(event, note).render().join();
+    }
+}
@@ -1,5 +1,8 @@
 package dex.discord.handler;
 
+import dex.discord.respond.SendScheduler;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.IterableUtils;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 import sx.blah.discord.util.DiscordException;
@@ -23,9 +26,15 @@ public class CantankerousHandler extends Handler {
             "OH MY GOD"
     );
 
+    public CantankerousHandler(final SendScheduler sends)
+    {
+        super(sends);
+    }
+
     @Override
-    void respond(MessageReceivedEvent event) throws MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, Deadline deadline) throws MissingPermissionsException, RateLimitException, DiscordException
     {
-        event.getMessage().getChannel().sendMessage(IterableUtils.randomFrom(CANTANKEROUS_REPLIES));
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                IterableUtils.randomFrom(CANTANKEROUS_REPLIES));
     }
 }
@@ -1,9 +1,8 @@
 package dex.discord.handler;
 
-import com.github.rholder.retry.Retryer;
-import com.github.rholder.retry.RetryerBuilder;
-import com.github.rholder.retry.StopStrategies;
-import com.github.rholder.retry.WaitStrategies;
+import dex.discord.respond.SendScheduler;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.ParsingUtils;
 import dex.util.ThrowableUtils;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
@@ -16,7 +15,7 @@ import sx.blah.discord.util.RateLimitException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class DeleteHandler extends Handler
@@ -24,14 +23,13 @@ public class DeleteHandler extends Handler
     private static final String DEX_BOT_DISCORD_ID = "237425015325327360";
     private static final int DEFAULT_DELETE_LIMIT = 1;
 
-    private static final Retryer<Void> RETRYER = RetryerBuilder.<Void>newBuilder()
-            .withWaitStrategy(WaitStrategies.exponentialWait(10, TimeUnit.SECONDS))
-            .withStopStrategy(StopStrategies.stopAfterDelay(60, TimeUnit.SECONDS))
-            .retryIfException()
-            .build();
+    public DeleteHandler(final SendScheduler sends)
+    {
+        super(sends);
+    }
 
     @Override
-    void respond(MessageReceivedEvent event) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
         final IChannel channel = event.getMessage().getChannel();
 
@@ -49,6 +47,8 @@ public class DeleteHandler extends Handler
                     .filter(message -> message.getAuthor().getID().equals(DEX_BOT_DISCORD_ID))
                     .limit(limit)
                     .forEach(message -> {
+                        // Stop deleting at the deadline, but still report what was done
+                        deadline.check();
                         tryDelete(message);
                         deleteCount.incrementAndGet();
                     });
@@ -58,20 +58,18 @@ public class DeleteHandler extends Handler
 
         // Let the channel users know what you did
         final String status = String.format("Deleted %d messages.", deleteCount.get());
-        channel.sendMessage(status);
+        DiscordUtils.uncheckedSendMessage(sends_, channel, status);
     }
 
-    private static void tryDelete(final IMessage message)
+    private void tryDelete(final IMessage message)
     {
+        // The scheduler paces deletions and waits out any rate limit, so there's no need to retry here
         try {
-            RETRYER.call(() -> {
-                message.delete();
-                return null;
-            });
-
-        } catch (Exception e) {
+            sends_.delete(message).join();
+        } catch (CompletionException e) {
             throw ThrowableUtils.toUnchecked(
-                    String.format("Encountered exception while deleting message %s!", message.getContent()), e);
+                    String.format("Encountered exception while deleting message %s!", message.getContent()),
+                    e.getCause());
         }
     }
 }
@@ -2,11 +2,15 @@ package dex.discord.handler;
 
 import com.google.common.base.Joiner;
 import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
 import dex.discord.respond.Responder;
+import dex.discord.respond.ResponseCache;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.DynamicPokeApi;
+import dex.pokemon.EvolutionGraph;
 import dex.pokemon.NameCache;
+import dex.pokemon.SpriteCache;
 import dex.util.*;
-import me.sargunvohra.lib.pokekotlin.model.ChainLink;
 import me.sargunvohra.lib.pokekotlin.model.EvolutionChain;
 import me.sargunvohra.lib.pokekotlin.model.Pokemon;
 import me.sargunvohra.lib.pokekotlin.model.PokemonSpecies;
@@ -17,31 +21,35 @@ import sx.blah.discord.util.MessageBuilder;
 import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiFunction;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
-public class DexHandler extends DexSingleArgumentHandler
+public class DexHandler extends BatchLookupHandler
 {
     private static final Joiner OR_JOINER = Joiner.on(", or ");
 
     private final DynamicPokeApi client_;
     private final NameCache speciesIds_;
-    private final List<BiFunction<Responder, PokemonSpecies, Responder>> responseBuilders_;
     private final SpellingSuggester speciesNameSuggester_;
+    private final ResponseCache responseCache_;
+    private final SpriteCache sprites_;
+    private final BackgroundBuild<EvolutionGraph> evolutions_;
 
-    public DexHandler(final DynamicPokeApi client, final NameCache speciesIds)
+    /**
+     * @param evolutions    Evolutions of every species, which may still be being built
+     */
+    public DexHandler(final SendScheduler sends, final DynamicPokeApi client, final NameCache speciesIds,
+            final ResponseCache responseCache, final SpriteCache sprites,
+            final BackgroundBuild<EvolutionGraph> evolutions)
     {
-        super(DexCommand.dex);
+        super(sends, DexCommand.dex);
         Validate.notNull(client);
         Validate.isTrue(client.getSupportedDataTypes().contains(PokemonSpecies.class),
                 "Provided PokeAPI client does not support access to PokemonSpecies objects!");
@@ -50,45 +58,86 @@ public class DexHandler extends DexSingleArgumentHandler
         Validate.isTrue(client.getSupportedDataTypes().contains(EvolutionChain.class),
                 "Provided PokeAPI client does not support access to EvolutionChain objects!");
         Validate.notNull(speciesIds);
+        Validate.notNull(responseCache);
+        Validate.notNull(sprites);
+        Validate.notNull(evolutions);
 
         client_ = client;
         speciesIds_ = speciesIds;
-        responseBuilders_ = Arrays.asList(this::addPokemonData, this::addEvolutionData);
         speciesNameSuggester_ = new SpellingSuggester(speciesIds.getAllNames());
+        responseCache_ = responseCache;
+        sprites_ = sprites;
+        evolutions_ = evolutions;
     }
 
     @Override
-    void respond(MessageReceivedEvent event, String argument) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, String argument, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
-        final Responder responder = generateResponder(event, argument);
-        responder.respond();
+        final Optional<Integer> maybeId = speciesIds_.getId(argument);
+        if (!maybeId.isPresent()) {
+            generateNotFoundResponder(event, argument).respond(sends_);
+            return;
+        }
+        final int id = maybeId.get();
+
+        responseCache_.respond(DexCommand.dex, id, event, () -> generateResponder(event, argument, id, deadline));
     }
 
-    private Responder generateResponder(MessageReceivedEvent event, final String name)
+    @Override
+    boolean isBatch(final List<String> arguments)
     {
-        // Construct response
-        final Optional<Integer> maybeId = speciesIds_.getId(name);
-        if (!maybeId.isPresent()) {
-            final StringBuilder noIdResponseBuilder = new StringBuilder();
-            noIdResponseBuilder.append(
-                    String.format("I'm sorry.  I couldn't find %s in my list of Pokemon species.",
-                            PrintingUtils.properNoun(name)));
-
-            // Suggest a name if the lookup failed
-            final Collection<String> suggestions = speciesNameSuggester_.suggest(name);
-            if (!suggestions.isEmpty()) {
-                noIdResponseBuilder.append(
-                        String.format("  Did you mean %s?", OR_JOINER.join(
-                                suggestions.stream()
-                                        .map(PrintingUtils::firstUppercase)
-                                        .collect(Collectors.toList()))));
-            }
+        return true;
+    }
+
+    /**
+     * Fetch every species at once; everything else about them is fetched as each is looked up
+     */
+    @Override
+    void prepareBatch(final List<String> arguments, final Deadline deadline)
+    {
+        client_.getAll(PokemonSpecies.class, arguments.stream()
+                .map(speciesIds_::getId)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList()), deadline);
+    }
 
-            return Responder.simpleResponder(event, noIdResponseBuilder.toString());
+    @Override
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Deadline deadline)
+    {
+        final Optional<Integer> maybeId = speciesIds_.getId(argument);
+        if (!maybeId.isPresent()) {
+            return generateNotFoundResponder(event, argument).render().join();
         }
         final int id = maybeId.get();
 
-        final Optional<PokemonSpecies> maybeSpecies = client_.get(PokemonSpecies.class, id);
+        return responseCache_.render(DexCommand.dex, id, () -> generateResponder(event, argument, id, deadline));
+    }
+
+    private Responder generateNotFoundResponder(final MessageReceivedEvent event, final String name)
+    {
+        final StringBuilder noIdResponseBuilder = new StringBuilder();
+        noIdResponseBuilder.append(
+                String.format("I'm sorry.  I couldn't find %s in my list of Pokemon species.",
+                        PrintingUtils.properNoun(name)));
+
+        // Suggest a name if the lookup failed
+        final Collection<String> suggestions = speciesNameSuggester_.suggest(name);
+        if (!suggestions.isEmpty()) {
+            noIdResponseBuilder.append(
+                    String.format("  Did you mean %s?", OR_JOINER.join(
+                            suggestions.stream()
+                                    .map(PrintingUtils::firstUppercase)
+                                    .collect(Collectors.toList()))));
+        }
+
+        return Responder.simpleResponder(event, noIdResponseBuilder.toString());
+    }
+
+    private Responder generateResponder(final MessageReceivedEvent event, final String name, final int id,
+            final Deadline deadline)
+    {
+        final Optional<PokemonSpecies> maybeSpecies = client_.get(PokemonSpecies.class, id, deadline);
         if (!maybeSpecies.isPresent()) {
             final String response = String.format("I'm sorry.  I couldn't get any information about %s (Nature #%d)",
                     PrintingUtils.properNoun(name), id);
@@ -96,26 +145,31 @@ public class DexHandler extends DexSingleArgumentHandler
         }
         final PokemonSpecies species = maybeSpecies.get();
 
-        // TODO: This pattern is really brittle due to the enforced signature of the builder functions
-        Responder responder = new Responder(event);
-        for (final BiFunction<Responder, PokemonSpecies, Responder> builder : responseBuilders_) {
-            responder = builder.apply(responder, species);
-            // Short-circuit return if we complete early
-            if (responder.isComplete()) {
-                return responder;
-            }
-        }
+        // Everything else depends only on the species, so it's all fetched at once: the Pokemon, then its sprites as
+        // soon as it arrives, alongside the evolutions
+        final CompletableFuture<Optional<Pokemon>> pokemon = client_.getAsync(Pokemon.class, species.getId());
+        final CompletableFuture<EvolutionGraph> evolutions = getEvolutions(species);
+        final CompletableFuture<byte[]> spriteSheet = pokemon.thenCompose(maybePokemon -> maybePokemon.isPresent()
+                ? sprites_.getAsync(maybePokemon.get(), deadline)
+                : CompletableFuture.completedFuture(null));
 
-        return responder;
+        Responder responder = new Responder(event, deadline);
+        responder.addSource(PokemonSpecies.class, id);
+        responder = addPokemonData(responder, species, await(pokemon, deadline), spriteSheet);
+        // Short-circuit return if we complete early
+        if (responder.isComplete()) {
+            return responder;
+        }
+        return addEvolutionData(responder, species, evolutions);
     }
 
-    private Responder addPokemonData(final Responder responder, final PokemonSpecies species)
+    private Responder addPokemonData(final Responder responder, final PokemonSpecies species,
+            final Optional<Pokemon> maybePokemon, final CompletableFuture<byte[]> spriteSheet)
     {
         final String name = PrintingUtils.englishName(species.getNames()).getName();
         LOG.info("Adding Pokemon data for {}.", name);
 
         final int pokemonId = species.getId();
-        final Optional<Pokemon> maybePokemon = client_.get(Pokemon.class, pokemonId);
         if (!maybePokemon.isPresent()) {
             final String response = String.format("No Pokemon found with name %s, ID %d.", name, pokemonId);
             LOG.info(response);
@@ -123,8 +177,9 @@ public class DexHandler extends DexSingleArgumentHandler
         }
 
         final Pokemon pokemon = maybePokemon.get();
+        responder.addSource(Pokemon.class, pokemonId);
         // Add sprites
-        responder.addImage(getPokemonSprites(pokemon));
+        responder.addAttachment("image.png", await(spriteSheet, responder.getDeadline()));
 
         // TODO: separate 'type' and 'ability' additions
         final String typeMessage = String.format("%s is type %s.", name,
@@ -144,46 +199,43 @@ public class DexHandler extends DexSingleArgumentHandler
         return responder;
     }
 
-    // TODO: EvolutionUtils should use IDs, not names
-    private Responder addEvolutionData(final Responder responder, final PokemonSpecies species)
+    private Responder addEvolutionData(final Responder responder, final PokemonSpecies species,
+            final CompletableFuture<EvolutionGraph> evolutionsOfSpecies)
     {
         final String name = species.getName();
         LOG.info("Adding evolution data for {}.", name);
 
+        final int id = species.getId();
         final int chainId = species.getEvolutionChain().getId();
-        final Optional<EvolutionChain> maybeEvolutionChain = client_.get(EvolutionChain.class, chainId);
-        if (!maybeEvolutionChain.isPresent()) {
+        final EvolutionGraph evolutions = await(evolutionsOfSpecies, responder.getDeadline());
+        if (!evolutions.contains(id)) {
             final String response = String.format("No evolution chain found for Pokemon '%s', ID %s", name, chainId);
             LOG.info(response);
             return Responder.simpleResponder(responder.getTrigger(), response);
         }
+        responder.addSource(EvolutionChain.class, chainId);
 
-        final EvolutionChain evolutionChain = maybeEvolutionChain.get();
-        final Optional<ChainLink> maybePriorEvolution = EvolutionUtils.getPriorEvolution(evolutionChain, name);
-        final List<ChainLink> futureEvolutions = EvolutionUtils.getFutureEvolution(evolutionChain, name);
+        final Optional<String> maybePriorEvolution = evolutions.getPriorEvolution(id)
+                .flatMap(evolutions::getName)
+                .map(PrintingUtils::properNoun);
+        final List<String> futureEvolutionNames = IntStream.of(evolutions.getFutureEvolutions(id))
+                .mapToObj(evolutions::getName)
+                .filter(Optional::isPresent)
+                .map(evolution -> PrintingUtils.properNoun(evolution.get()))
+                .collect(Collectors.toList());
 
         // Do not add any output for Pokemon with no evolutions
-        if (!maybePriorEvolution.isPresent() && futureEvolutions.isEmpty()) {
+        if (!maybePriorEvolution.isPresent() && futureEvolutionNames.isEmpty()) {
             return responder;
         }
 
         final StringBuilder responseBuilder = new StringBuilder();
-        if (maybePriorEvolution.isPresent() && !futureEvolutions.isEmpty()) {
-
-            final String priorEvolutionName = PrintingUtils.properNoun(
-                    maybePriorEvolution.get().getSpecies().getName());
-            final List<String> futureEvolutionNames = futureEvolutions.stream()
-                    .map(evolution -> PrintingUtils.properNoun(evolution.getSpecies().getName()))
-                    .collect(Collectors.toList());
+        if (maybePriorEvolution.isPresent() && !futureEvolutionNames.isEmpty()) {
             responseBuilder.append(String.format("It evolves from %s and into %s.",
-                    priorEvolutionName, OR_JOINER.join(futureEvolutionNames)));
-        } else if (maybePriorEvolution.isPresent() && futureEvolutions.isEmpty()) {
-            responseBuilder.append(String.format("It evolves from %s.",
-                    PrintingUtils.properNoun(maybePriorEvolution.get().getSpecies().getName())));
-        } else if (!maybePriorEvolution.isPresent() && !futureEvolutions.isEmpty()) {
-            final List<String> futureEvolutionNames = futureEvolutions.stream()
-                    .map(evolution -> PrintingUtils.properNoun(evolution.getSpecies().getName()))
-                    .collect(Collectors.toList());
+                    maybePriorEvolution.get(), OR_JOINER.join(futureEvolutionNames)));
+        } else if (maybePriorEvolution.isPresent()) {
+            responseBuilder.append(String.format("It evolves from %s.", maybePriorEvolution.get()));
+        } else {
             responseBuilder.append(String.format("It evolves into %s.", OR_JOINER.join(futureEvolutionNames)));
         }
 
@@ -191,23 +243,34 @@ public class DexHandler extends DexSingleArgumentHandler
         return responder;
     }
 
-    private BufferedImage getPokemonSprites(final Pokemon pokemon)
+    /**
+     * @return  Evolutions including the species', from every chain if they've all been linked up, otherwise from just
+     *          the species' own chain, which is empty if it can't be fetched
+     */
+    private CompletableFuture<EvolutionGraph> getEvolutions(final PokemonSpecies species)
     {
-        final List<BufferedImage> sprites = Stream.of(
-                pokemon.getSprites().getFrontDefault(),
-                pokemon.getSprites().getFrontFemale(),
-                pokemon.getSprites().getFrontShiny())
-                .filter(url -> url != null)
-                .map(url -> {
-                    try {
-                        final InputStream stream = new URL(url).openStream();
-                        return ImageIO.read(stream);
-                    } catch (IOException e) {
-                        throw ThrowableUtils.toUnchecked(e);
-                    }
-                })
-                .collect(Collectors.toList());
+        final Optional<EvolutionGraph> allEvolutions = evolutions_.getIfBuilt();
+        if (allEvolutions.isPresent() && allEvolutions.get().contains(species.getId())) {
+            return CompletableFuture.completedFuture(allEvolutions.get());
+        }
+        return client_.getAsync(EvolutionChain.class, species.getEvolutionChain().getId())
+                .thenApply(chain -> EvolutionGraph.fromChains(chain.isPresent()
+                        ? Collections.singletonList(chain.get())
+                        : Collections.emptyList()));
+    }
 
-        return ImageUtils.combine(sprites);
+    /**
+     * Wait on part of the response, failing as it would have had it been gathered on this thread
+     */
+    private static <T> T await(final CompletableFuture<T> future, final Deadline deadline)
+    {
+        try {
+            return deadline.await(future);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw ThrowableUtils.toUnchecked(e.getCause());
+        }
     }
 }
@@ -2,8 +2,13 @@ package dex.discord.handler;
 
 import com.google.common.base.Joiner;
 import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
+import dex.discord.respond.Responder;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.DynamicPokeApi;
 import dex.pokemon.NameCache;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.PrintingUtils;
 import dex.util.SpellingSuggester;
 import org.apache.commons.lang3.Validate;
@@ -14,58 +19,107 @@ import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Template for handlers that take a single argument and look it up against the Pokemon API
+ *
+ * Several names can be looked up at once, in which case they're all resolved and fetched together.
  */
-public abstract class DexLookupHandler extends DexSingleArgumentHandler
+public abstract class DexLookupHandler extends BatchLookupHandler
 {
     private static final Joiner OR_JOINER = Joiner.on(", or ");
 
     protected final DynamicPokeApi client_;
     protected final NameCache idCache_;
     protected final SpellingSuggester nameSuggester_;
+    private final Class<?> dataType_;
 
-    DexLookupHandler(final DexCommand command, final DynamicPokeApi client, final NameCache idCache)
+    /**
+     * @param dataType  PokeAPI type the names are looked up as
+     */
+    DexLookupHandler(final SendScheduler sends, final DexCommand command, final DynamicPokeApi client,
+            final NameCache idCache, final Class<?> dataType)
     {
-        super(command);
+        super(sends, command);
 
         Validate.notNull(client, "Cannot access the PokeAPI with a null client!");
         Validate.notNull(idCache, "Cannot access items via their human-readable names without a name -> ID client!");
+        Validate.isTrue(client.getSupportedDataTypes().contains(dataType),
+                "Provided PokeAPI client does not support access to %s objects!", dataType.getSimpleName());
 
         client_ = client;
         idCache_ = idCache;
         nameSuggester_ = new SpellingSuggester(idCache.getAllNames());
+        dataType_ = dataType;
     }
 
     @Override
-    void respond(MessageReceivedEvent event, String argument) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, String argument, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
         final Optional<Integer> maybeId = idCache_.getId(argument);
         if (!maybeId.isPresent()) {
-            final StringBuilder noIdResponseBuilder = new StringBuilder();
-            noIdResponseBuilder.append(
-                    String.format("I'm sorry, I couldn't find %s.",
-                            PrintingUtils.properNoun(argument)));
-
-            // Suggest a name if the lookup failed
-            final Collection<String> suggestions = nameSuggester_.suggest(argument);
-            if (!suggestions.isEmpty()) {
-                noIdResponseBuilder.append(
-                        String.format("  Did you mean %s?", OR_JOINER.join(
-                                suggestions.stream()
-                                        .map(PrintingUtils::firstUppercase)
-                                        .collect(Collectors.toList()))));
-            }
-
-            event.getMessage().getChannel().sendMessage(noIdResponseBuilder.toString());
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), notFoundReply(argument));
             return;
         }
 
-        respond(event, argument, maybeId.get());
+        respond(event, argument, maybeId.get(), deadline);
+    }
+
+    @Override
+    boolean isBatch(final List<String> arguments)
+    {
+        return true;
+    }
+
+    /**
+     * Fetch everything named at once, so that each lookup finds its data already cached
+     */
+    @Override
+    void prepareBatch(final List<String> arguments, final Deadline deadline)
+    {
+        client_.getAll(dataType_, arguments.stream()
+                .map(idCache_::getId)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList()), deadline);
+    }
+
+    @Override
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Deadline deadline)
+    {
+        final Optional<Integer> maybeId = idCache_.getId(argument);
+        if (!maybeId.isPresent()) {
+            return Responder.simpleResponder(event, notFoundReply(argument)).render().join();
+        }
+
+        return render(event, argument, maybeId.get(), deadline);
     }
 
-    abstract void respond(final MessageReceivedEvent event, final String argument, final Integer id) throws IOException, MissingPermissionsException, RateLimitException, DiscordException;
+    abstract void respond(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException;
+
+    abstract RenderedResponse render(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline);
+
+    private String notFoundReply(final String argument)
+    {
+        final StringBuilder noIdResponseBuilder = new StringBuilder();
+        noIdResponseBuilder.append(
+                String.format("I'm sorry, I couldn't find %s.",
+                        PrintingUtils.properNoun(argument)));
+
+        // Suggest a name if the lookup failed
+        final Collection<String> suggestions = nameSuggester_.suggest(argument);
+        if (!suggestions.isEmpty()) {
+            noIdResponseBuilder.append(
+                    String.format("  Did you mean %s?", OR_JOINER.join(
+                            suggestions.stream()
+                                    .map(PrintingUtils::firstUppercase)
+                                    .collect(Collectors.toList()))));
+        }
+        return noIdResponseBuilder.toString();
+    }
 }
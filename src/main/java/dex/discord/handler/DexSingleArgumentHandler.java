@@ -1,7 +1,9 @@
 package dex.discord.handler;
 
 import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
 import dex.discord.respond.TypingStatus;
+import dex.util.Deadline;
 import dex.util.DiscordUtils;
 import dex.util.ParsingUtils;
 import dex.util.PrintingUtils;
@@ -14,6 +16,7 @@ import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -23,34 +26,56 @@ import java.util.stream.Stream;
  */
 public abstract class DexSingleArgumentHandler extends Handler
 {
+    // Names may be separated by spaces, commas or both
+    private static final String NAME_SEPARATOR_PATTERN = "[\\s,]+";
+
     private final DexCommand command_;
 
-    DexSingleArgumentHandler(final DexCommand command)
+    DexSingleArgumentHandler(final SendScheduler sends, final DexCommand command)
     {
+        super(sends);
         Validate.notNull(command, "Cannot construct a handler for a null command!");
         command_ = command;
     }
 
     @Override
-    void respond(final MessageReceivedEvent event) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(final MessageReceivedEvent event, final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
-        // Extract the nature's name from the input
-        final String argument;
-        try {
-            argument = ParsingUtils.parseFirstArgument(event.getMessage().getContent());
-        } catch (Exception e) {
+        // Extract the names from the input
+        final List<String> arguments = parseNames(event.getMessage().getContent());
+        if (arguments.isEmpty()) {
             final String parseFailResponse = String.format("%s\n%s",
                     DiscordUtils.getUnhappyReply(),
                     HelpHandler.helpResponse(command_));
-            event.getMessage().getChannel().sendMessage(parseFailResponse);
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), parseFailResponse);
             return;
         }
 
-        // Hand the argument off to be responded to
-        try (final TypingStatus typing = TypingStatus.start(event.getMessage().getChannel())) {
-            respond(event, argument);
+        // Hand the argument(s) off to be responded to
+        try (final TypingStatus typing = TypingStatus.start(sends_, event.getMessage().getChannel())) {
+            respondToArguments(event, arguments, deadline);
         }
     }
 
-    abstract void respond(final MessageReceivedEvent event, final String argument) throws IOException, MissingPermissionsException, RateLimitException, DiscordException;
+    /**
+     * @return  The names after the command, which may be separated by spaces, commas or both
+     */
+    static List<String> parseNames(final String message)
+    {
+        return ParsingUtils.parseArguments(message).stream()
+                .flatMap(argument -> Arrays.stream(argument.split(NAME_SEPARATOR_PATTERN)))
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    abstract void respond(final MessageReceivedEvent event, final String argument, final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException;
+
+    /**
+     * Respond to the names given; only the first is looked up, unless the command can take several
+     */
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        respond(event, arguments.get(0), deadline);
+    }
 }
@@ -1,6 +1,12 @@
 package dex.discord.handler;
 
+import com.google.common.base.Throwables;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DeadlineExceededException;
+import dex.discord.respond.SendScheduler;
 import dex.util.DiscordUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
@@ -13,21 +19,59 @@ import java.io.IOException;
 public abstract class Handler
 {
     protected static final Logger LOG = LoggerFactory.getLogger(Handler.class);
+
+    private static final String TIMED_OUT_REPLY = "Sorry, that took too long.  Please try again in a bit.";
+
+    protected final SendScheduler sends_;
+
+    Handler(final SendScheduler sends)
+    {
+        Validate.notNull(sends, "Cannot respond to anything without a send scheduler!");
+        sends_ = sends;
+    }
+
     /**
      * Respond, catching any exceptions safely
      * @param event
+     * @param deadline  Point after which the response is abandoned in favor of a quick "timed out" reply
+     * @return  Whether the message was answered, rather than timed out or failed
      */
-    public void safelyRespond(final MessageReceivedEvent event)
+    public boolean safelyRespond(final MessageReceivedEvent event, final Deadline deadline)
     {
         try {
-            respond(event);
+            // The command may have spent its whole deadline waiting to be run
+            deadline.check();
+            respond(event, deadline);
+            return true;
         }
         // Gotta catch 'em all
         catch (Exception e) {
-            LOG.error("Was not able to respond to message \"{}\"!", event.getMessage().getContent(), e);
+            // Running out of time may surface wrapped, e.g. by a failed future or a download
+            if (Throwables.getCausalChain(e).stream().anyMatch(cause -> cause instanceof DeadlineExceededException)) {
+                LOG.warn("Ran out of time responding to message \"{}\".", event.getMessage().getContent());
+                DiscordUtils.trySendMessage(sends_, event.getMessage().getChannel(), TIMED_OUT_REPLY);
+            } else {
+                LOG.error("Was not able to respond to message \"{}\"!", event.getMessage().getContent(), e);
+            }
         }
+        return false;
+    }
+
+    /**
+     * Reply for when something built in the background can't be used yet
+     * @param stillBuildingReply    Reply for while it's still being built
+     */
+    static String notBuiltReply(final BackgroundBuild<?> build, final String stillBuildingReply)
+    {
+        return build.hasFailed() ? failedBuildReply(build) : stillBuildingReply;
+    }
+
+    private static String failedBuildReply(final BackgroundBuild<?> build)
+    {
+        return String.format("I'm sorry, I couldn't put together my %s, so I can't answer that right now.  "
+                + "I'll keep trying.", build.getName());
     }
 
-    abstract void respond(final MessageReceivedEvent event)
+    abstract void respond(final MessageReceivedEvent event, final Deadline deadline)
             throws IOException, MissingPermissionsException, RateLimitException, DiscordException;
 }
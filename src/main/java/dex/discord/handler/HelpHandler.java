@@ -1,7 +1,12 @@
 package dex.discord.handler;
 
 import com.google.common.base.Joiner;
+import dex.discord.CommandRecognizer;
 import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
+import dex.pokemon.TeamCoverage;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.ParsingUtils;
 import dex.util.ThrowableUtils;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
@@ -21,6 +26,7 @@ public class HelpHandler extends Handler
 {
     private static final Joiner COMMA_JOINER = Joiner.on(", ");
     private static final Joiner NEWLINE_JOINER = Joiner.on("\n");
+    private static final CommandRecognizer COMMAND_RECOGNIZER = CommandRecognizer.forAllCommands();
     private static final String COMMANDS = COMMA_JOINER.join(Arrays.stream(DexCommand.values())
             .map(Enum::name)
             .collect(Collectors.toList()));
@@ -29,8 +35,13 @@ public class HelpHandler extends Handler
             "Use `!help [command]` for more details."
     );
 
+    public HelpHandler(final SendScheduler sends)
+    {
+        super(sends);
+    }
+
     @Override
-    void respond(MessageReceivedEvent event) throws MissingPermissionsException, RateLimitException, DiscordException {
+    void respond(MessageReceivedEvent event, Deadline deadline) throws MissingPermissionsException, RateLimitException, DiscordException {
         final String message = event.getMessage().getContent();
         final List<String> arguments = ParsingUtils.parseArguments(message);
 
@@ -38,7 +49,8 @@ public class HelpHandler extends Handler
         if (arguments.isEmpty()) {
             reply = STANDARD_HELP;
         } else {
-            final Optional<DexCommand> maybeCommand = DexCommand.fuzzyMatch(arguments.get(0));
+            final Optional<DexCommand> maybeCommand = COMMAND_RECOGNIZER.recognizeName(
+                    ParsingUtils.comparisonFormat(arguments.get(0)));
             if (maybeCommand.isPresent()) {
                 reply = helpResponse(maybeCommand.get());
             } else {
@@ -46,7 +58,7 @@ public class HelpHandler extends Handler
             }
         }
 
-        event.getMessage().getChannel().sendMessage(reply);
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), reply);
     }
 
     /**
@@ -58,23 +70,38 @@ public class HelpHandler extends Handler
             case help:
                 return "Please do not ask for help with the help command; it is wasteful, and impolite.";
             case nature:
-                return "usage: `!nature [nature name]`\n" +
-                        "Example: `!nature Jolly`";
+                return "usage: `!nature [nature name] ...`, `!nature +[stat] -[stat]` or `!nature chart`\n" +
+                        "Example: `!nature Jolly Timid`, `!nature +spe -atk` or `!nature chart`";
             case dex:
-                return "usage: `!dex [pokemon name]`\n" +
-                        "Example: `!dex Sneasel`";
+                return String.format("usage: `!dex [pokemon name] ...` with up to %d Pokemon\n",
+                        BatchLookupHandler.MAX_BATCH_SIZE) +
+                        "Example: `!dex Sneasel` or `!dex Sneasel, Weavile`";
             case art:
                 return "usage: `!art [pokemon name]`\n" +
                         "Example: `!art Sneasel`";
             case ability:
-                return "usage: `!ability [ability name]`\n" +
-                        "Example: `!ability Pickpocket`";
+                return "usage: `!ability [ability name] ...` or `!ability who [ability name]`\n" +
+                        "Example: `!ability Pickpocket Pressure` or `!ability who Intimidate`";
             case type:
-                return "usage: `!type [type name]`\n" +
-                        "Example: `!type Dark`";
+                return "usage: `!type [type name] ...`, `!type [type]/[type]` or `!type [type] vs [type]/[type]`\n" +
+                        "Example: `!type Dark Steel`, `!type Water/Ground` or `!type Fire vs Grass/Steel`";
             case move:
-                return "usage: `!move [move name]`\n" +
-                        "Example: `!move Slash`";
+                return "usage: `!move [move name] ...`, `!move who [move name]` or " +
+                        "`!move search [field][=, <, <=, >, >=][value] ...`\n" +
+                        "Fields are `type`, `class`, `power`, `accuracy` and `pp`, plus `sort` and `limit`.\n" +
+                        "Example: `!move Slash Surf`, `!move who Trick-room` or " +
+                        "`!move search type=fire power>=90 accuracy=100 sort=power`";
+            case team:
+                return String.format("usage: `!team [pokemon name] ...` with up to %d Pokemon\n",
+                        TeamCoverage.MAX_TEAM_SIZE) +
+                        "Example: `!team Garchomp Rotom-wash Ferrothorn`";
+            case top:
+                return "usage: `!top [stat] [type] [type]`, where the types are optional\n" +
+                        "Stats are `hp`, `atk`, `def`, `spa`, `spd`, `spe` and `total`.\n" +
+                        "Example: `!top speed fire` or `!top hp`";
+            case learns:
+                return "usage: `!learns [pokemon name] [move name]`\n" +
+                        "Example: `!learns Garchomp Swords-dance`";
             case wtp:
                 final String alternateNames = COMMA_JOINER.join(DexCommand.alternateNames(DexCommand.wtp));
                 return String.format("usage: `!%s [time limit]`\n" +
@@ -1,5 +1,7 @@
 package dex.discord.handler;
 
+import dex.discord.respond.SendScheduler;
+import dex.util.Deadline;
 import dex.util.SnuggleUtils;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 import sx.blah.discord.util.DiscordException;
@@ -10,9 +12,14 @@ import java.io.IOException;
 
 public class KetHandler extends Handler
 {
+    public KetHandler(final SendScheduler sends)
+    {
+        super(sends);
+    }
+
     @Override
-    void respond(MessageReceivedEvent event) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
-        SnuggleUtils.respond("**MEOW**", event);
+        SnuggleUtils.respond(sends_, "**MEOW**", event, deadline);
     }
 }
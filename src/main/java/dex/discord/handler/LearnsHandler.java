@@ -0,0 +1,108 @@
+package dex.discord.handler;
+
+import com.google.common.base.Joiner;
+import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
+import dex.pokemon.LearnsetIndex;
+import dex.pokemon.NameCache;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
+import dex.util.ParsingUtils;
+import dex.util.PrintingUtils;
+import org.apache.commons.lang3.Validate;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RateLimitException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * How a Pokemon learns a move, in every version group it does
+ */
+public class LearnsHandler extends Handler
+{
+    private static final Joiner AND_JOINER = Joiner.on(", ");
+
+    private final NameCache speciesIds_;
+    private final NameCache moveIds_;
+    private final BackgroundBuild<LearnsetIndex> learnsets_;
+
+    /**
+     * @param learnsets     Index answering the lookups, which may still be being built
+     */
+    public LearnsHandler(final SendScheduler sends, final NameCache speciesIds, final NameCache moveIds,
+            final BackgroundBuild<LearnsetIndex> learnsets)
+    {
+        super(sends);
+
+        Validate.notNull(speciesIds);
+        Validate.notNull(moveIds);
+        Validate.notNull(learnsets);
+
+        speciesIds_ = speciesIds;
+        moveIds_ = moveIds;
+        learnsets_ = learnsets;
+    }
+
+    @Override
+    void respond(final MessageReceivedEvent event, final Deadline deadline) throws MissingPermissionsException, RateLimitException, DiscordException
+    {
+        final List<String> arguments = ParsingUtils.parseArguments(event.getMessage().getContent());
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), generateReply(arguments));
+    }
+
+    private String generateReply(final List<String> arguments)
+    {
+        if (arguments.size() != 2) {
+            return String.format("%s\n%s", DiscordUtils.getUnhappyReply(),
+                    HelpHandler.helpResponse(DexCommand.learns));
+        }
+        final String pokemonName = PrintingUtils.properNoun(arguments.get(0));
+        final String moveName = PrintingUtils.properNoun(arguments.get(1));
+        final Optional<Integer> speciesId = speciesIds_.getId(arguments.get(0));
+        if (!speciesId.isPresent()) {
+            return String.format("I'm sorry.  I couldn't find %s in my list of Pokemon species.", pokemonName);
+        }
+        final Optional<Integer> moveId = moveIds_.getId(arguments.get(1));
+        if (!moveId.isPresent()) {
+            return String.format("I'm sorry, I couldn't find the move %s.", moveName);
+        }
+
+        // Built in the background at startup; it takes a while, so don't make anyone wait on it
+        final Optional<LearnsetIndex> maybeIndex = learnsets_.getIfBuilt();
+        if (!maybeIndex.isPresent()) {
+            return notBuiltReply(learnsets_,
+                    "I'm still sorting out which Pokemon learn which moves.  Please try again in a minute.");
+        }
+        final LearnsetIndex index = maybeIndex.get();
+        if (!index.contains(speciesId.get())) {
+            return String.format("I'm sorry.  I don't know what %s learns.", pokemonName);
+        }
+
+        final long[] learnings = index.getLearnings(speciesId.get(), moveId.get());
+        if (learnings.length == 0) {
+            return String.format("%s doesn't learn %s.", pokemonName, moveName);
+        }
+
+        // Version groups that share a way of learning it are listed together, oldest first
+        final Map<String, List<String>> versionGroupsByWay = new LinkedHashMap<>();
+        for (final long learning : learnings) {
+            final String method = index.getMethodName(learning).orElse("some other way");
+            final int level = LearnsetIndex.levelOf(learning);
+            final String way = level > 0 ? String.format("%s at level %d", method, level) : method;
+            versionGroupsByWay.computeIfAbsent(way, key -> new ArrayList<>())
+                    .add(index.getVersionGroupName(learning).orElse("?"));
+        }
+
+        final StringBuilder replyBuilder = new StringBuilder(String.format("%s learns %s by:", pokemonName, moveName));
+        versionGroupsByWay.forEach((way, versionGroups) -> replyBuilder.append(
+                String.format("\n%s in %s", way, AND_JOINER.join(versionGroups))));
+        return PrintingUtils.code(replyBuilder.toString(), "");
+    }
+}
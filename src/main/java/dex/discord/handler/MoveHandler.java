@@ -2,15 +2,24 @@ package dex.discord.handler;
 
 import com.google.common.base.Joiner;
 import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
 import dex.discord.respond.Responder;
+import dex.discord.respond.ResponseCache;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.DynamicPokeApi;
+import dex.pokemon.HolderIndex;
+import dex.pokemon.MoveIndex;
 import dex.pokemon.NameCache;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.ParsingUtils;
 import dex.util.PrintingUtils;
 import dex.util.ThrowableUtils;
 import me.sargunvohra.lib.pokekotlin.model.Move;
 import me.sargunvohra.lib.pokekotlin.model.MoveStatChange;
 import me.sargunvohra.lib.pokekotlin.model.VerboseEffect;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 import sx.blah.discord.util.DiscordException;
@@ -21,30 +30,84 @@ import sx.blah.discord.util.RateLimitException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MoveHandler extends DexLookupHandler
 {
     private static final Joiner NEWLINE_JOINER = Joiner.on("\n");
 
-    public MoveHandler(final DynamicPokeApi client, final NameCache typeIds)
+    // "!move search type=fire power>=90" lists moves by their numbers rather than looking one up
+    private static final String SEARCH_ARGUMENT = "search";
+    private static final Pattern SEARCH_TERM = Pattern.compile("([a-z.]+)(>=|<=|=|>|<)([\\w-]+)");
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    // Keeps the reply to a single message
+    private static final int MAX_SEARCH_LIMIT = 25;
+    // Plenty for any move's numbers, and few enough that parsing one, or stepping past it for > and <, fits an int
+    private static final int MAX_SEARCH_NUMBER_DIGITS = 9;
+    // "!move who trick-room" lists the Pokemon that learn a move
+    private static final String WHO_ARGUMENT = "who";
+    // Keeps the list to a single message
+    private static final int MAX_LEARNERS_LENGTH = 1500;
+
+    private final ResponseCache responseCache_;
+    private final BackgroundBuild<MoveIndex> moveIndex_;
+    private final BackgroundBuild<HolderIndex> learners_;
+
+    /**
+     * @param moveIndex     Index answering searches, which may still be being built
+     * @param learners      Index of who learns each move, which may still be being built
+     */
+    public MoveHandler(final SendScheduler sends, final DynamicPokeApi client, final NameCache typeIds,
+            final ResponseCache responseCache, final BackgroundBuild<MoveIndex> moveIndex,
+            final BackgroundBuild<HolderIndex> learners)
     {
-        super(DexCommand.move, client, typeIds);
+        super(sends, DexCommand.move, client, typeIds, Move.class);
 
-        Validate.isTrue(client.getSupportedDataTypes().contains(Move.class),
-                "Provided PokeAPI client does not support access to Move objects!");
+        Validate.notNull(responseCache);
+        Validate.notNull(moveIndex);
+        Validate.notNull(learners);
+
+        responseCache_ = responseCache;
+        moveIndex_ = moveIndex;
+        learners_ = learners;
+    }
+
+    @Override
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        final String argument = arguments.get(0);
+        if (argument.equalsIgnoreCase(SEARCH_ARGUMENT)) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    search(arguments.subList(1, arguments.size())));
+        } else if (argument.equalsIgnoreCase(WHO_ARGUMENT)) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    learners(arguments.subList(1, arguments.size())));
+        } else {
+            super.respondToArguments(event, arguments, deadline);
+        }
+    }
+
+    @Override
+    void respond(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        responseCache_.respond(DexCommand.move, id, event, () -> generateResponder(event, argument, id, deadline));
     }
 
     @Override
-    void respond(final MessageReceivedEvent event, final String argument, final Integer id) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline)
     {
-        final Responder responder = generateResponder(event, argument, id);
-        responder.respond();
+        return responseCache_.render(DexCommand.move, id, () -> generateResponder(event, argument, id, deadline));
     }
 
-    private Responder generateResponder(final MessageReceivedEvent event, final String name, final Integer id)
+    private Responder generateResponder(final MessageReceivedEvent event, final String name, final Integer id,
+            final Deadline deadline)
     {
-        final Optional<Move> maybeMove = client_.get(Move.class, id);
+        final Optional<Move> maybeMove = client_.get(Move.class, id, deadline);
         if (!maybeMove.isPresent()) {
             final String response = String.format("I'm sorry.  I couldn't get any information about %s Move #%d)",
                     PrintingUtils.properNoun(name), id);
@@ -52,7 +115,8 @@ public class MoveHandler extends DexLookupHandler
         }
         final Move move = maybeMove.get();
 
-        final Responder responder = new Responder(event);
+        final Responder responder = new Responder(event, deadline);
+        responder.addSource(Move.class, id);
         addMoveQuickLook(responder, move);
         addMoveText(responder, move);
 
@@ -108,6 +172,159 @@ public class MoveHandler extends DexLookupHandler
         return responder;
     }
 
+    /**
+     * Answer a search such as "type=fire power>=90 accuracy=100 sort=power limit=5" from the move index
+     */
+    private String search(final List<String> terms)
+    {
+        // Built in the background at startup; it takes a while, so don't make anyone wait on it
+        final Optional<MoveIndex> maybeIndex = moveIndex_.getIfBuilt();
+        if (!maybeIndex.isPresent()) {
+            return notBuiltReply(moveIndex_,
+                    "I'm still putting together my list of moves.  Please try again in a minute.");
+        }
+        final MoveIndex index = maybeIndex.get();
+
+        final MoveIndex.Filter filter = new MoveIndex.Filter();
+        MoveIndex.Column rankBy = MoveIndex.Column.power;
+        int limit = DEFAULT_SEARCH_LIMIT;
+        for (final String term : terms) {
+            final Matcher matcher = SEARCH_TERM.matcher(ParsingUtils.comparisonFormat(term));
+            if (!matcher.matches()) {
+                return searchHelp(String.format("I don't understand `%s`.", term));
+            }
+            final String field = matcher.group(1);
+            final String operator = matcher.group(2);
+            final String value = matcher.group(3);
+
+            if (field.equals("type") || field.equals("class") || field.equals("sort")) {
+                final Optional<Integer> type = index.typeIndex(value);
+                final Optional<Integer> damageClass = index.damageClassIndex(value);
+                final Optional<MoveIndex.Column> column = column(value);
+                if (!operator.equals("=")) {
+                    return searchHelp(String.format("`%s` can only be matched with `=`.", field));
+                } else if (field.equals("type") && type.isPresent()) {
+                    filter.ofType(type.get());
+                } else if (field.equals("class") && damageClass.isPresent()) {
+                    filter.ofDamageClass(damageClass.get());
+                } else if (field.equals("sort") && column.isPresent()) {
+                    rankBy = column.get();
+                } else {
+                    return searchHelp(String.format("I don't know the %s `%s`.", field, value));
+                }
+                continue;
+            }
+
+            if (!StringUtils.isNumeric(value) || value.length() > MAX_SEARCH_NUMBER_DIGITS) {
+                return searchHelp(String.format("`%s` needs to be a number of at most %d digits.", term,
+                        MAX_SEARCH_NUMBER_DIGITS));
+            }
+            final int number = Integer.parseInt(value);
+            if (field.equals("limit")) {
+                limit = Math.max(1, Math.min(MAX_SEARCH_LIMIT, number));
+                continue;
+            }
+            final Optional<MoveIndex.Column> column = column(field);
+            if (!column.isPresent()) {
+                return searchHelp(String.format("I can't search by `%s`.", field));
+            }
+            switch (operator) {
+                case ">":
+                    filter.atLeast(column.get(), number + 1);
+                    break;
+                case ">=":
+                    filter.atLeast(column.get(), number);
+                    break;
+                case "<":
+                    filter.atMost(column.get(), number - 1);
+                    break;
+                case "<=":
+                    filter.atMost(column.get(), number);
+                    break;
+                default:
+                    filter.atLeast(column.get(), number).atMost(column.get(), number);
+                    break;
+            }
+        }
+
+        final int[] rows = index.search(filter, rankBy, limit);
+        if (rows.length == 0) {
+            return "No moves match that search.";
+        }
+        final StringBuilder replyBuilder = new StringBuilder(String.format("%-16s %-9s %-8s %5s %4s %3s",
+                "Move", "Type", "Class", "Power", "Acc", "PP"));
+        for (final int row : rows) {
+            replyBuilder.append(String.format("\n%-16s %-9s %-8s %5s %4s %3s", index.getName(row),
+                    PrintingUtils.properNoun(index.getType(row)), index.getDamageClass(row),
+                    searchValue(index, MoveIndex.Column.power, row), searchValue(index, MoveIndex.Column.accuracy, row),
+                    searchValue(index, MoveIndex.Column.pp, row)));
+        }
+        final int matches = index.count(filter);
+        if (matches > rows.length) {
+            replyBuilder.append(String.format("\n...and %d more", matches - rows.length));
+        }
+        return PrintingUtils.code(replyBuilder.toString(), "");
+    }
+
+    /**
+     * List the Pokemon that learn a move, from the learner index
+     */
+    private String learners(final List<String> names)
+    {
+        if (names.isEmpty()) {
+            return String.format("%s\n%s", DiscordUtils.getUnhappyReply(),
+                    HelpHandler.helpResponse(DexCommand.move));
+        }
+        final String name = names.get(0);
+        final Optional<Integer> maybeId = idCache_.getId(name);
+        if (!maybeId.isPresent()) {
+            return String.format("I'm sorry, I couldn't find %s.", PrintingUtils.properNoun(name));
+        }
+
+        // Built in the background at startup; it takes a while, so don't make anyone wait on it
+        final Optional<HolderIndex> maybeIndex = learners_.getIfBuilt();
+        if (!maybeIndex.isPresent()) {
+            return notBuiltReply(learners_,
+                    "I'm still sorting out which Pokemon learn which moves.  Please try again in a minute.");
+        }
+        final HolderIndex index = maybeIndex.get();
+
+        final List<String> learners = index.getNames(index.getLearners(maybeId.get()));
+        if (learners.isEmpty()) {
+            return String.format("No Pokemon learns %s.", PrintingUtils.properNoun(name));
+        }
+        return PrintingUtils.style(String.format("%d Pokemon learn %s: %s", learners.size(),
+                PrintingUtils.properNoun(name), PrintingUtils.truncatedList(learners, MAX_LEARNERS_LENGTH)),
+                MessageBuilder.Styles.CODE);
+    }
+
+    private static Optional<MoveIndex.Column> column(final String name)
+    {
+        switch (name) {
+            case "power":
+            case "pow":
+                return Optional.of(MoveIndex.Column.power);
+            case "accuracy":
+            case "acc":
+                return Optional.of(MoveIndex.Column.accuracy);
+            case "pp":
+                return Optional.of(MoveIndex.Column.pp);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static String searchValue(final MoveIndex index, final MoveIndex.Column column, final int row)
+    {
+        final int value = index.get(column, row);
+        return value == MoveIndex.NONE ? "-" : String.valueOf(value);
+    }
+
+    private static String searchHelp(final String problem)
+    {
+        return String.format("%s\n%s", problem, HelpHandler.helpResponse(DexCommand.move));
+    }
+
     private boolean isStatusMove(final Move move)
     {
         return move.getDamageClass().getName().equals("status");
@@ -1,11 +1,18 @@
 package dex.discord.handler;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import dex.discord.DexCommand;
-import dex.pokemon.DynamicPokeApi;
+import dex.discord.respond.RenderedResponse;
+import dex.discord.respond.Responder;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.NameCache;
+import dex.pokemon.NatureTable;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.PrintingUtils;
-import me.sargunvohra.lib.pokekotlin.model.NamedApiResource;
-import me.sargunvohra.lib.pokekotlin.model.Nature;
+import dex.util.SpellingSuggester;
 import org.apache.commons.lang3.Validate;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 import sx.blah.discord.util.DiscordException;
@@ -13,66 +20,176 @@ import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
-public class NatureHandler extends DexSingleArgumentHandler
+public class NatureHandler extends BatchLookupHandler
 {
+    private static final Joiner AND_JOINER = Joiner.on(", ");
+    private static final Joiner OR_JOINER = Joiner.on(", or ");
 
-    private final NameCache natureIds_;
-    private final DynamicPokeApi client_;
+    // "!nature chart" shows every nature at once
+    private static final String CHART_ARGUMENT = "chart";
+    // "!nature +speed -attack" asks which nature has that effect
+    private static final String RAISED_PREFIX = "+";
+    private static final String LOWERED_PREFIX = "-";
+    // Column and row headings of the chart, in the order of NatureTable.STATS
+    private static final ImmutableList<String> STAT_ABBREVIATIONS = ImmutableList.of("Atk", "Def", "SpA", "SpD", "Spe");
+    private static final String STILL_BUILDING_REPLY =
+            "I'm still looking up what every nature does.  Please try again in a minute.";
 
-    public NatureHandler(final DynamicPokeApi client, final NameCache natureIds)
+    private final BackgroundBuild<NatureTable> natures_;
+    private final SpellingSuggester natureNameSuggester_;
+
+    /**
+     * @param natures   Table answering every lookup, which may still be being built
+     */
+    public NatureHandler(final SendScheduler sends, final NameCache natureIds,
+            final BackgroundBuild<NatureTable> natures)
     {
-        super(DexCommand.nature);
-        Validate.notNull(client);
-        Validate.isTrue(client.getSupportedDataTypes().contains(Nature.class),
-                "Provided PokeAPI client does not support access to Nature objects!");
+        super(sends, DexCommand.nature);
         Validate.notNull(natureIds);
+        Validate.notNull(natures);
 
-        client_ = client;
-        natureIds_ = natureIds;
+        natures_ = natures;
+        natureNameSuggester_ = new SpellingSuggester(natureIds.getAllNames());
     }
 
     @Override
-    void respond(MessageReceivedEvent event, String argument) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
+        final String argument = arguments.get(0);
+        final boolean isChart = argument.equalsIgnoreCase(CHART_ARGUMENT);
+        if (!isChart && !argument.startsWith(RAISED_PREFIX) && !argument.startsWith(LOWERED_PREFIX)) {
+            super.respondToArguments(event, arguments, deadline);
+            return;
+        }
+
         // Construct and send the response
-        final String reply = generateReply(argument);
-        event.getMessage().getChannel().sendMessage(reply);
+        final Optional<NatureTable> natures = natures_.getIfBuilt();
+        final String reply;
+        if (!natures.isPresent()) {
+            reply = notBuiltReply(natures_, STILL_BUILDING_REPLY);
+        } else if (isChart) {
+            reply = generateChart(natures.get());
+        } else {
+            reply = generateReverseReply(natures.get(), arguments);
+        }
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), reply);
     }
 
-    private String generateReply(final String name)
+    @Override
+    void respond(MessageReceivedEvent event, String argument, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
-        final Optional<Integer> maybeId = natureIds_.getId(name);
-        if (!maybeId.isPresent()) {
-            return String.format("I'm sorry.  I couldn't find %s in my list of Pokemon natures.",
-                    PrintingUtils.properNoun(name));
-        }
-        final int id = maybeId.get();
+        final Optional<NatureTable> natures = natures_.getIfBuilt();
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), natures.isPresent()
+                ? generateReply(natures.get(), argument)
+                : notBuiltReply(natures_, STILL_BUILDING_REPLY));
+    }
+
+    @Override
+    boolean isBatch(final List<String> arguments)
+    {
+        return arguments.stream().noneMatch(argument -> argument.equalsIgnoreCase(CHART_ARGUMENT)
+                || argument.startsWith(RAISED_PREFIX) || argument.startsWith(LOWERED_PREFIX));
+    }
+
+    @Override
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Deadline deadline)
+    {
+        final Optional<NatureTable> natures = natures_.getIfBuilt();
+        return Responder.simpleResponder(event, natures.isPresent()
+                ? generateReply(natures.get(), argument)
+                : notBuiltReply(natures_, STILL_BUILDING_REPLY)).render().join();
+    }
 
-        final Optional<Nature> maybeNature = client_.get(Nature.class, id);
-        if (!maybeNature.isPresent()) {
-            return String.format("I'm sorry.  I couldn't get any information about %s (Nature #%d)", name, id);
+    private String generateReply(final NatureTable natures, final String name)
+    {
+        if (!natures.contains(name)) {
+            final StringBuilder replyBuilder = new StringBuilder(String.format(
+                    "I'm sorry.  I couldn't find %s in my list of Pokemon natures.", PrintingUtils.properNoun(name)));
+            final Collection<String> suggestions = natureNameSuggester_.suggest(name);
+            if (!suggestions.isEmpty()) {
+                replyBuilder.append(String.format("  Did you mean %s?", OR_JOINER.join(suggestions.stream()
+                        .map(PrintingUtils::firstUppercase)
+                        .collect(Collectors.toList()))));
+            }
+            return replyBuilder.toString();
         }
-        final Nature nature = maybeNature.get();
 
-        final StringBuilder replyBuilder = new StringBuilder();
-        if (nature.getIncreasedStat() == null && nature.getDecreasedStat() == null)
-        {
-            replyBuilder.append(String.format("%s has no effect on stats.", PrintingUtils.properNoun(name)));
-        } else {
-            final NamedApiResource increasedStat = nature.getIncreasedStat();
-            final NamedApiResource decreasedStat = nature.getDecreasedStat();
+        final Optional<Integer> increased = natures.getRaisedStat(name);
+        final Optional<Integer> decreased = natures.getLoweredStat(name);
+        if (!increased.isPresent() && !decreased.isPresent()) {
+            return String.format("%s has no effect on stats.", PrintingUtils.properNoun(name));
+        }
+        return PrintingUtils.diff(
+                String.format("%s has the following effects: ", PrintingUtils.properNoun(name)),
+                increased.map(NatureTable.STATS::get).orElse(null),
+                decreased.map(NatureTable.STATS::get).orElse(null));
+    }
 
-            final String increased = increasedStat != null ? increasedStat.getName() : null;
-            final String decreased = decreasedStat != null ? decreasedStat.getName() : null;
+    /**
+     * Answer which nature(s) raise and/or lower the given stats, e.g. "+speed -atk"
+     */
+    private String generateReverseReply(final NatureTable natures, final List<String> arguments)
+    {
+        Optional<Integer> raised = Optional.empty();
+        Optional<Integer> lowered = Optional.empty();
+        for (final String argument : arguments) {
+            final boolean isRaised = argument.startsWith(RAISED_PREFIX);
+            final Optional<Integer> stat = isRaised || argument.startsWith(LOWERED_PREFIX)
+                    ? NatureTable.statIndex(argument.substring(1))
+                    : Optional.empty();
+            if (!stat.isPresent()) {
+                return String.format("I'm sorry, I don't know the stat %s.  Try one of %s, e.g. `+%s -%s`.",
+                        argument, AND_JOINER.join(STAT_ABBREVIATIONS), STAT_ABBREVIATIONS.get(4),
+                        STAT_ABBREVIATIONS.get(0));
+            }
+            if (isRaised) {
+                raised = stat;
+            } else {
+                lowered = stat;
+            }
+        }
 
-            final String diffMessage = PrintingUtils.diff(
-                    String.format("%s has the following effects: ", PrintingUtils.properNoun(name)),
-                    increased, decreased);
-            replyBuilder.append(diffMessage);
+        final List<String> matches = new ArrayList<>();
+        for (int raisedStat = 0; raisedStat < NatureTable.STATS.size(); raisedStat++) {
+            for (int loweredStat = 0; loweredStat < NatureTable.STATS.size(); loweredStat++) {
+                if (raisedStat == loweredStat || raised.orElse(raisedStat) != raisedStat
+                        || lowered.orElse(loweredStat) != loweredStat) {
+                    continue;
+                }
+                natures.getNature(raisedStat, loweredStat)
+                        .ifPresent(nature -> matches.add(PrintingUtils.properNoun(nature)));
+            }
+        }
+        if (matches.isEmpty()) {
+            return "No nature raises and lowers the same stat; those natures have no effect at all.";
         }
+        return PrintingUtils.code(AND_JOINER.join(matches), "");
+    }
 
-        return replyBuilder.toString();
+    /**
+     * Render every nature in a grid of raised stat (rows) against lowered stat (columns)
+     */
+    private String generateChart(final NatureTable natures)
+    {
+        final StringBuilder chartBuilder = new StringBuilder("     ");
+        STAT_ABBREVIATIONS.forEach(stat -> chartBuilder.append(String.format(" -%-7s", stat)));
+        for (int raised = 0; raised < NatureTable.STATS.size(); raised++) {
+            chartBuilder.append(String.format("\n+%-4s", STAT_ABBREVIATIONS.get(raised)));
+            for (int lowered = 0; lowered < NatureTable.STATS.size(); lowered++) {
+                chartBuilder.append(String.format(" %-8s", PrintingUtils.properNoun(
+                        natures.getNature(raised, lowered).orElse("-"))));
+            }
+        }
+        chartBuilder.append(String.format("\nNo effect: %s", AND_JOINER.join(natures.getNeutralNatures().stream()
+                .map(PrintingUtils::properNoun)
+                .collect(Collectors.toList()))));
+        return PrintingUtils.code(chartBuilder.toString(), "");
     }
 }
@@ -0,0 +1,166 @@
+package dex.discord.handler;
+
+import com.google.common.base.Joiner;
+import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
+import dex.discord.respond.TypingStatus;
+import dex.pokemon.DynamicPokeApi;
+import dex.pokemon.NameCache;
+import dex.pokemon.TeamCoverage;
+import dex.pokemon.TypeChart;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
+import dex.util.PrintingUtils;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+import me.sargunvohra.lib.pokekotlin.model.PokemonType;
+import org.apache.commons.lang3.Validate;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RateLimitException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Sum up the type matchups of a team of Pokemon, all in one reply
+ */
+public class TeamHandler extends Handler
+{
+    private static final Joiner AND_JOINER = Joiner.on(", ");
+
+    private final DynamicPokeApi client_;
+    private final NameCache speciesIds_;
+    private final BackgroundBuild<TypeChart> typeChart_;
+
+    /**
+     * @param typeChart     Chart to sum the team up with, which may still be being built
+     */
+    public TeamHandler(final SendScheduler sends, final DynamicPokeApi client, final NameCache speciesIds,
+            final BackgroundBuild<TypeChart> typeChart)
+    {
+        super(sends);
+
+        Validate.notNull(client);
+        Validate.isTrue(client.getSupportedDataTypes().contains(Pokemon.class),
+                "Provided PokeAPI client does not support access to Pokemon objects!");
+        Validate.notNull(speciesIds);
+        Validate.notNull(typeChart);
+
+        client_ = client;
+        speciesIds_ = speciesIds;
+        typeChart_ = typeChart;
+    }
+
+    @Override
+    void respond(final MessageReceivedEvent event, final Deadline deadline) throws MissingPermissionsException, RateLimitException, DiscordException
+    {
+        final List<String> names = DexSingleArgumentHandler.parseNames(event.getMessage().getContent());
+        if (names.isEmpty() || names.size() > TeamCoverage.MAX_TEAM_SIZE) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), String.format("%s\n%s",
+                    DiscordUtils.getUnhappyReply(), HelpHandler.helpResponse(DexCommand.team)));
+            return;
+        }
+
+        final List<Integer> ids = new ArrayList<>(names.size());
+        final List<String> unknownNames = new ArrayList<>();
+        for (final String name : names) {
+            final Optional<Integer> id = speciesIds_.getId(name);
+            if (id.isPresent()) {
+                ids.add(id.get());
+            } else {
+                unknownNames.add(PrintingUtils.properNoun(name));
+            }
+        }
+        if (!unknownNames.isEmpty()) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    String.format("I'm sorry, I couldn't find %s.", AND_JOINER.join(unknownNames)));
+            return;
+        }
+
+        // Built in the background at startup; don't make anyone wait on it
+        final Optional<TypeChart> chart = typeChart_.getIfBuilt();
+        if (!chart.isPresent()) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    notBuiltReply(typeChart_, TypeHandler.CHART_STILL_BUILDING_REPLY));
+            return;
+        }
+
+        final String reply;
+        try (final TypingStatus typing = TypingStatus.start(sends_, event.getMessage().getChannel())) {
+            // Every member is fetched at once, and the default form of a species shares its ID
+            final Map<Integer, Pokemon> pokemon = client_.getAll(Pokemon.class, ids, deadline);
+            if (!pokemon.keySet().containsAll(ids)) {
+                DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                        "I'm sorry.  I couldn't get information about everyone on that team.");
+                return;
+            }
+            final List<Pokemon> team = ids.stream()
+                    .map(pokemon::get)
+                    .collect(Collectors.toList());
+            reply = summarize(team, chart.get());
+        }
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), reply);
+    }
+
+    private String summarize(final List<Pokemon> team, final TypeChart chart)
+    {
+        final TeamCoverage coverage = TeamCoverage.of(chart, team.stream()
+                .map(member -> member.getTypes().stream()
+                        .map(PokemonType::getType)
+                        .map(type -> chart.indexOf(type.getName()))
+                        .filter(Optional::isPresent)
+                        .mapToInt(Optional::get)
+                        .toArray())
+                .collect(Collectors.toList()));
+
+        final StringBuilder replyBuilder = new StringBuilder();
+        replyBuilder.append(String.format("Team: %s", AND_JOINER.join(team.stream()
+                .map(member -> String.format("%s (%s)", PrintingUtils.properNoun(member.getName()),
+                        PrintingUtils.prettifiedTypes(member.getTypes())))
+                .collect(Collectors.toList()))));
+
+        // Types the team is weak to are in diff red, types it walls in diff green
+        replyBuilder.append("\n\nDefense (weak / resist / immune):");
+        for (int attacker = 0; attacker < chart.size(); attacker++) {
+            final int weak = coverage.getWeakMembers(attacker);
+            final int resistant = coverage.getResistantMembers(attacker);
+            final int immune = coverage.getImmuneMembers(attacker);
+            if ((weak | resistant | immune) == 0) {
+                continue;
+            }
+            final int balance = Integer.bitCount(weak) - Integer.bitCount(resistant) - Integer.bitCount(immune);
+            replyBuilder.append(String.format("\n%s %-9s %d / %d / %d", balance > 0 ? "-" : balance < 0 ? "+" : " ",
+                    PrintingUtils.properNoun(chart.nameOf(attacker)),
+                    Integer.bitCount(weak), Integer.bitCount(resistant), Integer.bitCount(immune)));
+            if (weak != 0) {
+                replyBuilder.append(String.format("  weak: %s", AND_JOINER.join(membersOf(team, weak))));
+            }
+        }
+
+        replyBuilder.append(String.format("\n\nOffense: the team's own types hit %d of %d types super effectively.",
+                coverage.getCoveredCount(), chart.size()));
+        final List<String> uncovered = IntStream.range(0, chart.size())
+                .filter(defender -> !coverage.isCovered(defender))
+                .mapToObj(defender -> PrintingUtils.properNoun(chart.nameOf(defender)))
+                .collect(Collectors.toList());
+        if (!uncovered.isEmpty()) {
+            replyBuilder.append(String.format("\n- Nothing super effective against: %s", AND_JOINER.join(uncovered)));
+        }
+
+        return PrintingUtils.code(replyBuilder.toString(), "diff");
+    }
+
+    private static List<String> membersOf(final List<Pokemon> team, final int members)
+    {
+        return IntStream.range(0, team.size())
+                .filter(member -> (members & (1 << member)) != 0)
+                .mapToObj(member -> PrintingUtils.properNoun(team.get(member).getName()))
+                .collect(Collectors.toList());
+    }
+}
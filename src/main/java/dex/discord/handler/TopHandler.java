@@ -0,0 +1,91 @@
+package dex.discord.handler;
+
+import com.google.common.base.Joiner;
+import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
+import dex.pokemon.StatIndex;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
+import dex.util.ParsingUtils;
+import dex.util.PrintingUtils;
+import org.apache.commons.lang3.Validate;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+import sx.blah.discord.util.DiscordException;
+import sx.blah.discord.util.MissingPermissionsException;
+import sx.blah.discord.util.RateLimitException;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leaderboards of Pokemon by base stat, optionally of a type
+ */
+public class TopHandler extends Handler
+{
+    private static final Joiner SLASH_JOINER = Joiner.on("/");
+    private static final int LEADERBOARD_SIZE = 10;
+
+    private final BackgroundBuild<StatIndex> statIndex_;
+
+    /**
+     * @param statIndex     Index answering leaderboards, which may still be being built
+     */
+    public TopHandler(final SendScheduler sends, final BackgroundBuild<StatIndex> statIndex)
+    {
+        super(sends);
+
+        Validate.notNull(statIndex);
+        statIndex_ = statIndex;
+    }
+
+    @Override
+    void respond(final MessageReceivedEvent event, final Deadline deadline) throws MissingPermissionsException, RateLimitException, DiscordException
+    {
+        final List<String> arguments = ParsingUtils.parseArguments(event.getMessage().getContent());
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), generateReply(arguments));
+    }
+
+    private String generateReply(final List<String> arguments)
+    {
+        final Optional<Integer> stat = arguments.isEmpty()
+                ? Optional.empty()
+                : StatIndex.statIndex(arguments.get(0));
+        if (!stat.isPresent()) {
+            return String.format("%s\n%s", DiscordUtils.getUnhappyReply(), HelpHandler.helpResponse(DexCommand.top));
+        }
+
+        // Built in the background at startup; it takes a while, so don't make anyone wait on it
+        final Optional<StatIndex> maybeIndex = statIndex_.getIfBuilt();
+        if (!maybeIndex.isPresent()) {
+            return notBuiltReply(statIndex_, "I'm still ranking every Pokemon.  Please try again in a minute.");
+        }
+        final StatIndex index = maybeIndex.get();
+
+        long requiredTypes = 0;
+        final List<String> types = arguments.subList(1, arguments.size());
+        for (final String type : types) {
+            final Optional<Long> typeBit = index.typeBit(type);
+            if (!typeBit.isPresent()) {
+                return String.format("I'm sorry, I couldn't find the %s type.", PrintingUtils.properNoun(type));
+            }
+            requiredTypes |= typeBit.get();
+        }
+
+        final int[] rows = index.top(stat.get(), requiredTypes, LEADERBOARD_SIZE);
+        final String statName = PrintingUtils.properNoun(StatIndex.STATS.get(stat.get()));
+        if (rows.length == 0) {
+            return "No Pokemon has all of those types.";
+        }
+        final StringBuilder replyBuilder = new StringBuilder(types.isEmpty()
+                ? String.format("Highest %s:", statName)
+                : String.format("Highest %s among %s types:", statName, SLASH_JOINER.join(types.stream()
+                        .map(PrintingUtils::properNoun)
+                        .toArray())));
+        for (int rank = 0; rank < rows.length; rank++) {
+            replyBuilder.append(String.format("\n%2d. %-16s %3d", rank + 1, index.getName(rows[rank]),
+                    index.get(stat.get(), rows[rank])));
+        }
+        return PrintingUtils.code(replyBuilder.toString(), "");
+    }
+}
@@ -2,9 +2,16 @@ package dex.discord.handler;
 
 import com.google.common.base.Joiner;
 import dex.discord.DexCommand;
+import dex.discord.respond.RenderedResponse;
 import dex.discord.respond.Responder;
+import dex.discord.respond.ResponseCache;
+import dex.discord.respond.SendScheduler;
 import dex.pokemon.DynamicPokeApi;
 import dex.pokemon.NameCache;
+import dex.pokemon.TypeChart;
+import dex.util.BackgroundBuild;
+import dex.util.Deadline;
+import dex.util.DiscordUtils;
 import dex.util.PrintingUtils;
 import me.sargunvohra.lib.pokekotlin.model.Name;
 import me.sargunvohra.lib.pokekotlin.model.NamedApiResource;
@@ -18,32 +25,87 @@ import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TypeHandler extends DexLookupHandler
 {
     private static final Joiner AND_JOINER = Joiner.on(", ");
+    private static final Joiner SLASH_JOINER = Joiner.on("/");
 
-    public TypeHandler(final DynamicPokeApi client, final NameCache typeIds)
+    // "!type water/ground" asks how a dual type fares on defense
+    private static final String DUAL_TYPE_SEPARATOR = "/";
+    // "!type fire vs grass/steel" asks how an attack fares against a type
+    private static final String VERSUS = "vs";
+    static final String CHART_STILL_BUILDING_REPLY =
+            "I'm still working out how every type matches up.  Please try again in a minute.";
+
+    private final ResponseCache responseCache_;
+    private final BackgroundBuild<TypeChart> typeChart_;
+
+    /**
+     * @param typeChart     Chart answering matchup queries, which may still be being built
+     */
+    public TypeHandler(final SendScheduler sends, final DynamicPokeApi client, final NameCache typeIds,
+            final ResponseCache responseCache, final BackgroundBuild<TypeChart> typeChart)
+    {
+        super(sends, DexCommand.type, client, typeIds, Type.class);
+
+        Validate.notNull(responseCache);
+        Validate.notNull(typeChart);
+
+        responseCache_ = responseCache;
+        typeChart_ = typeChart;
+    }
+
+    @Override
+    void respondToArguments(final MessageReceivedEvent event, final List<String> arguments,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        if (isMatchup(arguments)) {
+            respondToMatchup(event, Optional.of(arguments.get(0)), arguments.get(2));
+        } else if (arguments.get(0).contains(DUAL_TYPE_SEPARATOR)) {
+            respondToMatchup(event, Optional.empty(), arguments.get(0));
+        } else {
+            super.respondToArguments(event, arguments, deadline);
+        }
+    }
+
+    @Override
+    boolean isBatch(final List<String> arguments)
     {
-        super(DexCommand.type, client, typeIds);
+        return !isMatchup(arguments)
+                && arguments.stream().noneMatch(argument -> argument.contains(DUAL_TYPE_SEPARATOR));
+    }
 
-        Validate.isTrue(client.getSupportedDataTypes().contains(Type.class),
-                "Provided PokeAPI client does not support access to Type objects!");
+    @Override
+    void respond(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    {
+        responseCache_.respond(DexCommand.type, id, event, () -> generateResponder(event, argument, id, deadline));
     }
 
     @Override
-    void respond(final MessageReceivedEvent event, final String argument, final Integer id) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    RenderedResponse render(final MessageReceivedEvent event, final String argument, final Integer id,
+            final Deadline deadline)
     {
-        final Responder responder = generateResponder(event, argument, id);
-        responder.respond();
+        return responseCache_.render(DexCommand.type, id, () -> generateResponder(event, argument, id, deadline));
     }
 
-    private Responder generateResponder(final MessageReceivedEvent event, final String name, final Integer id)
+    private static boolean isMatchup(final List<String> arguments)
     {
-        final Optional<Type> maybeType = client_.get(Type.class, id);
+        return arguments.size() == 3 && arguments.get(1).equalsIgnoreCase(VERSUS);
+    }
+
+    private Responder generateResponder(final MessageReceivedEvent event, final String name, final Integer id,
+            final Deadline deadline)
+    {
+        final Optional<Type> maybeType = client_.get(Type.class, id, deadline);
         if (!maybeType.isPresent()) {
             final String response = String.format("I'm sorry.  I couldn't get any information about %s Type #%d)",
                     PrintingUtils.properNoun(name), id);
@@ -51,7 +113,8 @@ public class TypeHandler extends DexLookupHandler
         }
         final Type type = maybeType.get();
 
-        final Responder responder = new Responder(event);
+        final Responder responder = new Responder(event, deadline);
+        responder.addSource(Type.class, id);
         addDamageRelationInfo(responder, type);
         addStatisticalInformation(responder, type);
 
@@ -120,6 +183,95 @@ public class TypeHandler extends DexLookupHandler
         return responder;
     }
 
+    /**
+     * Answer from the type chart how an attacking type fares against the defending type(s), or if no attacking type is
+     * given, how every attacking type does
+     */
+    private void respondToMatchup(final MessageReceivedEvent event, final Optional<String> attackerName,
+            final String defenderNames)
+    {
+        // Built in the background at startup; don't make anyone wait on it
+        final Optional<TypeChart> maybeChart = typeChart_.getIfBuilt();
+        if (!maybeChart.isPresent()) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    notBuiltReply(typeChart_, CHART_STILL_BUILDING_REPLY));
+            return;
+        }
+        final TypeChart chart = maybeChart.get();
+
+        final List<String> unknownNames = new ArrayList<>();
+        final int[] defenders = resolveTypes(chart, defenderNames.split(DUAL_TYPE_SEPARATOR), unknownNames);
+        final int[] attacker = attackerName.isPresent()
+                ? resolveTypes(chart, new String[]{attackerName.get()}, unknownNames)
+                : new int[0];
+        if (!unknownNames.isEmpty()) {
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(),
+                    String.format("I'm sorry, I couldn't find the %s type.", AND_JOINER.join(unknownNames)));
+            return;
+        }
+
+        final String defenderTypes = SLASH_JOINER.join(IntStream.of(defenders)
+                .mapToObj(index -> PrintingUtils.properNoun(chart.nameOf(index)))
+                .collect(Collectors.toList()));
+        final String reply;
+        if (attacker.length == 1) {
+            reply = PrintingUtils.style(String.format("%s attacks do %sx damage to %s.",
+                    PrintingUtils.properNoun(chart.nameOf(attacker[0])),
+                    formatMultiplier(chart.multiplier(attacker[0], defenders)), defenderTypes),
+                    MessageBuilder.Styles.CODE);
+        } else {
+            reply = defensiveMatchup(chart, defenders, defenderTypes);
+        }
+        DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), reply);
+    }
+
+    private String defensiveMatchup(final TypeChart chart, final int[] defenders, final String defenderTypes)
+    {
+        final float[] multipliers = chart.defensiveMultipliers(defenders);
+        final Map<Float, List<String>> attackersByMultiplier = IntStream.range(0, multipliers.length)
+                .filter(attacker -> multipliers[attacker] != 1.0f)
+                .boxed()
+                .collect(Collectors.groupingBy(attacker -> multipliers[attacker], TreeMap::new,
+                        Collectors.mapping(attacker -> PrintingUtils.properNoun(chart.nameOf(attacker)),
+                                Collectors.toList())));
+
+        final StringBuilder replyBuilder = new StringBuilder();
+        replyBuilder.append(String.format("%s takes:", defenderTypes));
+        if (attackersByMultiplier.isEmpty()) {
+            replyBuilder.append("\n  neutral damage from everything");
+        }
+        // Resistances first, in diff green, then weaknesses in diff red
+        attackersByMultiplier.forEach((multiplier, attackers) -> replyBuilder.append(
+                String.format("\n%s %sx damage from: %s",
+                        multiplier < 1.0f ? "+" : "-", formatMultiplier(multiplier), AND_JOINER.join(attackers))));
+
+        return PrintingUtils.code(replyBuilder.toString(), "diff");
+    }
+
+    private static int[] resolveTypes(final TypeChart chart, final String[] names, final List<String> unknownNames)
+    {
+        final List<Integer> indices = new ArrayList<>(names.length);
+        for (final String name : names) {
+            final Optional<Integer> index = chart.indexOf(name);
+            if (index.isPresent()) {
+                indices.add(index.get());
+            } else {
+                unknownNames.add(PrintingUtils.properNoun(name));
+            }
+        }
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String formatMultiplier(final float multiplier)
+    {
+        if (multiplier == 0.25f) {
+            return "\u00bc";
+        } else if (multiplier == 0.5f) {
+            return "\u00bd";
+        }
+        return String.valueOf((int) multiplier);
+    }
+
     private String prettyPrintNamedResources(final List<NamedApiResource> resources)
     {
         return AND_JOINER.join(resources.stream()
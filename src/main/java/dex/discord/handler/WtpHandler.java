@@ -1,8 +1,11 @@
 package dex.discord.handler;
 
+import dex.discord.respond.SendScheduler;
 import dex.discord.respond.TypingStatus;
+import dex.pokemon.ArtworkCache;
 import dex.pokemon.DynamicPokeApi;
 import dex.pokemon.NameCache;
+import dex.pokemon.SilhouetteCache;
 import dex.util.*;
 import me.sargunvohra.lib.pokekotlin.model.PokemonSpecies;
 import org.apache.commons.lang3.Validate;
@@ -13,11 +16,8 @@ import sx.blah.discord.util.DiscordException;
 import sx.blah.discord.util.MissingPermissionsException;
 import sx.blah.discord.util.RateLimitException;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -36,37 +36,47 @@ public class WtpHandler extends Handler
     private final DynamicPokeApi pokemonClient_;
     private final NameCache speciesCache_;
     private final SpellingSuggester speciesSuggester_;
+    private final SilhouetteCache silhouettes_;
+    private final ArtworkCache artwork_;
 
-    public WtpHandler(final IDiscordClient discordClient, final DynamicPokeApi pokemonClient,
-            final NameCache speciesCache)
+    public WtpHandler(final SendScheduler sends, final IDiscordClient discordClient, final DynamicPokeApi pokemonClient,
+            final NameCache speciesCache, final SilhouetteCache silhouettes, final ArtworkCache artwork)
     {
+        super(sends);
+
         Validate.notNull(discordClient, "Cannot create a Who's-That-Pokemon handler without a Discord client!");
         Validate.notNull(pokemonClient, "Cannot create a Who's-That-Pokemon handler without a PokeAPI client!");
         Validate.notNull(speciesCache, "Cannot create a Who's-That-Pokemon handler without a name cache for species!");
         Validate.isTrue(pokemonClient.getSupportedDataTypes().contains(PokemonSpecies.class),
                 "Provided PokeAPI client does not support access to PokemonSpecies objects!");
+        Validate.notNull(silhouettes, "Cannot create a Who's-That-Pokemon handler without silhouettes to show!");
+        Validate.notNull(artwork, "Cannot create a Who's-That-Pokemon handler without artwork to show!");
 
         discordClient_ = discordClient;
         pokemonClient_ = pokemonClient;
         speciesCache_ = speciesCache;
         speciesSuggester_ = new SpellingSuggester(speciesCache.getAllNames());
+        silhouettes_ = silhouettes;
+        artwork_ = artwork;
     }
 
     @Override
-    void respond(MessageReceivedEvent event) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
+    void respond(MessageReceivedEvent event, Deadline deadline) throws IOException, MissingPermissionsException, RateLimitException, DiscordException
     {
         final IChannel channel = event.getMessage().getChannel();
 
         final long timeLimit = Long.parseLong(ParsingUtils.getFirstArgument(event.getMessage().getContent())
                 .orElse(Long.toString(TIME_LIMIT_SECONDS)));
         if (timeLimit > TIME_LIMIT_MAX) {
-            DiscordUtils.uncheckedSendMessage(event.getMessage().getChannel(), String.format(
+            DiscordUtils.uncheckedSendMessage(sends_, event.getMessage().getChannel(), String.format(
                     "Don't be ridiculous.  The maximum timeout is %d seconds.", TIME_LIMIT_MAX));
             return;
         }
 
-        try (final TypingStatus typing = TypingStatus.start(channel)){
-            final PokemonSpecies randomSpecies = pickRandomSpecies();
+        try (final TypingStatus typing = TypingStatus.start(sends_, channel)){
+            // The deadline only covers setting up the game; the game itself runs for as long as it was asked to
+            final PokemonSpecies randomSpecies = pickRandomSpecies(deadline);
+            deadline.check();
             final AtomicBoolean successFlag = new AtomicBoolean(false);
             final long endTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeLimit);
             sendChallenge(channel, randomSpecies);
@@ -85,12 +95,12 @@ public class WtpHandler extends Handler
         }
     }
 
-    private PokemonSpecies pickRandomSpecies()
+    private PokemonSpecies pickRandomSpecies(final Deadline deadline)
     {
         // TODO: This assumes a contiguous range of Pokemon ID#s
         final int totalSpecies = speciesCache_.getAllNames().size();
         final int randomSpeciesId = ThreadLocalRandom.current().nextInt(1, totalSpecies + 1);
-        return pokemonClient_.get(PokemonSpecies.class, randomSpeciesId)
+        return pokemonClient_.get(PokemonSpecies.class, randomSpeciesId, deadline)
                 .orElseThrow(ThrowableUtils.fail("Could not obtain a PokemonSpecies for ID #%d!", randomSpeciesId));
     }
 
@@ -118,7 +128,7 @@ public class WtpHandler extends Handler
                 final Optional<String> maybeSuggestion = speciesSuggester_.suggest(content, 3, 1).stream()
                         .findAny();
                 if (maybeSuggestion.isPresent()) {
-                    DiscordUtils.uncheckedSendMessage(channel, String.format("Did you mean %s?",
+                    DiscordUtils.uncheckedSendMessage(sends_, channel, String.format("Did you mean %s?",
                             PrintingUtils.properNoun(maybeSuggestion.get())));
                 }
             }
@@ -126,41 +136,17 @@ public class WtpHandler extends Handler
         };
     }
 
-    private static void sendChallenge(final IChannel channel, final PokemonSpecies pokemonSpecies)
+    private void sendChallenge(final IChannel channel, final PokemonSpecies pokemonSpecies)
     {
-        try (final InputStream art = getPokemonOutline(pokemonSpecies)) {
-            DiscordUtils.uncheckedSendFile(channel, art, "Who's that Pokemon?");
-        } catch (IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
+        final byte[] silhouette = silhouettes_.get(pokemonSpecies.getId())
+                .orElseThrow(ThrowableUtils.fail("No silhouette for species #%d!", pokemonSpecies.getId()));
+        DiscordUtils.uncheckedSendFile(sends_, channel, silhouette, "Who's that Pokemon?");
     }
 
     private void sendArt(final IChannel channel, final PokemonSpecies pokemonSpecies, final String message)
-    {
-        try (final InputStream art = getPokemonArt(pokemonSpecies)) {
-            DiscordUtils.uncheckedSendFile(channel, art, message);
-        } catch (IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
-    }
-
-    private static InputStream getPokemonArt(final PokemonSpecies pokemonSpecies)
     {
         final int id = pokemonSpecies.getId();
-        final String artName = String.format("official-artwork/%d.png", id);
-        return ClassLoader.getSystemClassLoader().getResourceAsStream(artName);
-    }
-
-    private static InputStream getPokemonOutline(final PokemonSpecies pokemonSpecies)
-    {
-        try (final InputStream art = getPokemonArt(pokemonSpecies)) {
-            // Black out all colored pixels
-            final BufferedImage image = ImageIO.read(art);
-            ImageUtils.colorImage(image, Color.white);
-            return ImageUtils.toPngInputStream(image);
-
-        } catch (IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
+        final ByteBuffer art = artwork_.get(id).orElseThrow(ThrowableUtils.fail("No artwork for species #%d!", id));
+        DiscordUtils.uncheckedSendFile(sends_, channel, art, message);
     }
 }
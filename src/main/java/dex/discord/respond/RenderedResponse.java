@@ -0,0 +1,125 @@
+package dex.discord.respond;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Responder Responder's} reply with every attachment already downloaded and encoded, ready to be sent again
+ */
+public class RenderedResponse
+{
+    private final ImmutableList<String> responses_;
+    private final ImmutableList<Attachment> attachments_;
+    private final ImmutableSet<Source> sources_;
+
+    RenderedResponse(final List<String> responses, final List<Attachment> attachments, final Set<Source> sources)
+    {
+        responses_ = ImmutableList.copyOf(responses);
+        attachments_ = ImmutableList.copyOf(attachments);
+        sources_ = ImmutableSet.copyOf(sources);
+    }
+
+    public ImmutableList<String> getResponses()
+    {
+        return responses_;
+    }
+
+    public ImmutableList<Attachment> getAttachments()
+    {
+        return attachments_;
+    }
+
+    /**
+     * The PokeAPI data this reply was rendered from
+     */
+    public ImmutableSet<Source> getSources()
+    {
+        return sources_;
+    }
+
+    public boolean isRenderedFrom(final Class<?> type, final int id)
+    {
+        return sources_.contains(new Source(type, id));
+    }
+
+    /**
+     * Rough size of this reply in memory, in bytes
+     */
+    public int getWeight()
+    {
+        int weight = 0;
+        for (final String response : responses_) {
+            weight += 2 * response.length();
+        }
+        for (final Attachment attachment : attachments_) {
+            weight += attachment.content_.length;
+        }
+        return weight;
+    }
+
+    public static class Attachment
+    {
+        private final String fileName_;
+        private final byte[] content_;
+
+        Attachment(final String fileName, final byte[] content)
+        {
+            fileName_ = fileName;
+            content_ = content;
+        }
+
+        public String getFileName()
+        {
+            return fileName_;
+        }
+
+        /**
+         * Not copied, so that resending is just a matter of streaming these bytes; don't modify them
+         */
+        public byte[] getContent()
+        {
+            return content_;
+        }
+    }
+
+    public static class Source
+    {
+        private final Class<?> type_;
+        private final int id_;
+
+        Source(final Class<?> type, final int id)
+        {
+            type_ = type;
+            id_ = id;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Source that = (Source) o;
+            return id_ == that.id_ && type_.equals(that.type_);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(type_, id_);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s #%d", type_.getSimpleName(), id_);
+        }
+    }
+}
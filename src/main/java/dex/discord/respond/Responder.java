@@ -1,72 +1,265 @@
 package dex.discord.respond;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.util.Deadline;
+import dex.util.DeadlineExceededException;
+import dex.util.DiscordUtils;
 import dex.util.ImageUtils;
+import dex.util.NetworkUtils;
+import dex.util.PngEncoder;
+import dex.util.ThrowableUtils;
 import org.apache.commons.lang3.Validate;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
-import sx.blah.discord.util.DiscordException;
-import sx.blah.discord.util.MissingPermissionsException;
-import sx.blah.discord.util.RateLimitException;
+import sx.blah.discord.handle.obj.IChannel;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
-// TODO: Images and text require separate APIs to respond to Discord, but it'd be much nicer to abstract all that away and make more generically composable responses!
+/**
+ * A reply to a command, composed of text, image URLs and images, sent as a single response
+ *
+ * Text and files go through separate Discord APIs; callers don't need to care, since the parts are sent in order and
+ * the end of the text rides along with the first upload.
+ */
 public class Responder
 {
     private final static Joiner NEWLINE_JOINER = Joiner.on(System.lineSeparator());
 
+    // Attachments are downloaded and encoded here, all at once, while earlier parts are still being sent
+    private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("responder-%d")
+            .setDaemon(true)
+            .build());
+
     private final MessageReceivedEvent trigger_;
+    private final Deadline deadline_;
 
     private final List<String> responses_ = new ArrayList<>();
     private final List<String> imageUrls_ = new ArrayList<>();
     private final List<BufferedImage> images_ = new ArrayList<>();
+    private final List<RenderedResponse.Attachment> renderedAttachments_ = new ArrayList<>();
+    private final Set<RenderedResponse.Source> sources_ = new LinkedHashSet<>();
     private boolean complete_ = false;
 
-    public Responder(final MessageReceivedEvent trigger)
+    public Responder(final MessageReceivedEvent trigger, final Deadline deadline)
     {
         Validate.notNull(trigger, "Cannot construct replies for a null event!");
+        Validate.notNull(deadline, "Cannot construct replies without a deadline!");
         trigger_ = trigger;
+        deadline_ = deadline;
     }
 
     public static Responder simpleResponder(final MessageReceivedEvent trigger, final String message)
     {
-        final Responder responder = new Responder(trigger);
+        // Plain text is ready to send, so there's nothing left to time out
+        final Responder responder = new Responder(trigger, Deadline.none());
         responder.addResponse(message);
         responder.markComplete();
         return responder;
     }
 
-    public void respond() throws IOException, RateLimitException, DiscordException, MissingPermissionsException
+    /**
+     * Send a previously rendered reply again, without redoing any of the work that went into it
+     */
+    public static Responder replay(final MessageReceivedEvent trigger, final RenderedResponse rendered)
     {
-        final String response = NEWLINE_JOINER.join(responses_);
-        trigger_.getMessage().getChannel().sendMessage(response);
+        // Everything is ready to send, so there's nothing left to time out
+        final Responder responder = new Responder(trigger, Deadline.none());
+        responder.responses_.addAll(rendered.getResponses());
+        responder.renderedAttachments_.addAll(rendered.getAttachments());
+        responder.sources_.addAll(rendered.getSources());
+        responder.markComplete();
+        return responder;
+    }
 
-        for (final String imageUrl : imageUrls_) {
-            sendImage(imageUrl);
+    /**
+     * Send several previously rendered replies as one: all of their text, then all of their images stacked into a
+     * single upload
+     */
+    public static Responder combine(final MessageReceivedEvent trigger, final List<RenderedResponse> parts)
+    {
+        Validate.notEmpty(parts, "Cannot combine an empty list of replies!");
+
+        // Everything is ready to send, so there's nothing left to time out
+        final Responder responder = new Responder(trigger, Deadline.none());
+        final List<RenderedResponse.Attachment> attachments = new ArrayList<>();
+        for (final RenderedResponse part : parts) {
+            responder.responses_.addAll(part.getResponses());
+            attachments.addAll(part.getAttachments());
+            responder.sources_.addAll(part.getSources());
+        }
+        if (attachments.size() > 1) {
+            responder.images_.add(stack(attachments));
+        } else {
+            responder.renderedAttachments_.addAll(attachments);
         }
+        responder.markComplete();
+        return responder;
+    }
+
+    /**
+     * Send the response and wait for it to be delivered
+     * @throws DeadlineExceededException    if the deadline passed before every part was sent
+     * @throws ResponseFailedException      if any other part couldn't be delivered
+     */
+    public void respond(final SendScheduler sends)
+    {
+        try {
+            respondAsync(sends).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ?
+                    (RuntimeException) e.getCause() :
+                    ThrowableUtils.toUnchecked(e.getCause());
+        }
+    }
 
+    /**
+     * Send the response: the text first, then image URLs, then images, each in the order they were added
+     *
+     * The end of the text rides along with the first attachment in a single upload, so a reply with one image costs
+     * one request rather than two.  Text too long for one message is split into as few messages as possible.
+     *
+     * Every attachment starts downloading or encoding immediately, so the reply takes about as long as its slowest
+     * part rather than the sum of all of them.  A part that fails doesn't stop the parts after it.
+     * @return  A future that completes once every part has been attempted, exceptionally as
+     *          {@link #respond(SendScheduler)} describes if any failed
+     */
+    public CompletableFuture<Void> respondAsync(final SendScheduler sends)
+    {
+        final IChannel channel = trigger_.getMessage().getChannel();
+        final List<Attachment> attachments = prepareAttachments();
+
+        final Delivery delivery = new Delivery();
+        final String text = NEWLINE_JOINER.join(responses_);
+        // Discord rejects empty messages
+        final List<String> messages = text.isEmpty() ? new ArrayList<>() : DiscordUtils.splitIntoMessages(text);
+        final String caption = attachments.isEmpty() || messages.isEmpty() ?
+                null :
+                messages.remove(messages.size() - 1);
+
+        CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+        for (final String message : messages) {
+            // Each send waits for the one before it, so parts always arrive in order
+            sent = sent.thenRunAsync(() -> delivery.attempt("text", () ->
+                    sends.sendMessage(channel, message).join()), DELIVERY);
+        }
+        for (final Attachment attachment : attachments) {
+            final String message = attachment == attachments.get(0) ? caption : null;
+            sent = sent.thenRunAsync(() -> delivery.attempt(attachment.description_,
+                    () -> sendAttachment(sends, channel, attachment, message)), DELIVERY);
+        }
+
+        return sent.thenRun(delivery::throwIfFailed);
+    }
+
+    /**
+     * Download and encode every attachment, without sending anything, so the reply can be {@link #replay replayed}
+     * @return  A future that completes exceptionally if any attachment couldn't be prepared
+     */
+    public CompletableFuture<RenderedResponse> render()
+    {
+        final List<Attachment> attachments = prepareAttachments();
+        final List<String> responses = new ArrayList<>(responses_);
+        final Set<RenderedResponse.Source> sources = new LinkedHashSet<>(sources_);
+        return CompletableFuture.allOf(attachments.stream()
+                .map(attachment -> attachment.content_)
+                .toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> new RenderedResponse(responses, attachments.stream()
+                        .map(attachment -> new RenderedResponse.Attachment(
+                                attachment.fileName_, attachment.content_.join()))
+                        .collect(Collectors.toList()), sources));
+    }
+
+    /**
+     * Start downloading and encoding every attachment, in the order they'll be sent
+     */
+    private List<Attachment> prepareAttachments()
+    {
+        final List<Attachment> attachments = new ArrayList<>(
+                imageUrls_.size() + images_.size() + renderedAttachments_.size());
+        for (final String imageUrl : imageUrls_) {
+            attachments.add(new Attachment(imageUrl, fileName(imageUrl),
+                    CompletableFuture.supplyAsync(() -> download(imageUrl), DELIVERY)));
+        }
         for (final BufferedImage image : images_) {
-            sendImage(image);
+            attachments.add(new Attachment("image", "image.png",
+                    CompletableFuture.supplyAsync(() -> encode(image), DELIVERY)));
+        }
+        for (final RenderedResponse.Attachment rendered : renderedAttachments_) {
+            attachments.add(new Attachment(rendered.getFileName(), rendered.getFileName(),
+                    CompletableFuture.completedFuture(rendered.getContent())));
         }
+        return attachments;
     }
 
-    private void sendImage(final String address) throws IOException, RateLimitException, DiscordException, MissingPermissionsException
+    private static void sendAttachment(final SendScheduler sends, final IChannel channel, final Attachment attachment,
+            final String message)
     {
-        final URL url = new URL(address);
-        try (final InputStream stream = url.openStream()) {
-            trigger_.getMessage().getChannel().sendFile(stream, url.getFile());
+        final byte[] content;
+        try {
+            content = attachment.content_.join();
+        } catch (CompletionException e) {
+            // The text was riding along with this attachment, so it still needs sending without it
+            if (message != null) {
+                sends.sendMessage(channel, message).join();
+            }
+            throw e;
         }
+        sends.sendFile(channel, content, attachment.fileName_, message).join();
     }
 
-    private void sendImage(final BufferedImage image) throws IOException, RateLimitException, DiscordException, MissingPermissionsException
+    private byte[] download(final String address)
     {
-        try (final InputStream stream = ImageUtils.toPngInputStream(image)) {
-            trigger_.getMessage().getChannel().sendFile(stream, "image.png");
+        try (final InputStream stream = NetworkUtils.openStream(address, deadline_)) {
+            return ByteStreams.toByteArray(stream);
+        } catch (IOException e) {
+            throw ThrowableUtils.toUnchecked(String.format("Could not download image %s!", address), e);
+        }
+    }
+
+    private static byte[] encode(final BufferedImage image)
+    {
+        try {
+            return ImageUtils.toPngBytes(image, PngEncoder.Compression.fastest);
+        } catch (IOException e) {
+            throw ThrowableUtils.toUnchecked("Could not encode image!", e);
+        }
+    }
+
+    private static BufferedImage stack(final List<RenderedResponse.Attachment> attachments)
+    {
+        final List<BufferedImage> images = new ArrayList<>(attachments.size());
+        for (final RenderedResponse.Attachment attachment : attachments) {
+            try {
+                images.add(ImageUtils.readImage(attachment.getContent()));
+            } catch (IOException e) {
+                throw ThrowableUtils.toUnchecked(
+                        String.format("Could not decode image %s!", attachment.getFileName()), e);
+            }
+        }
+        return ImageUtils.stack(images);
+    }
+
+    private static String fileName(final String address)
+    {
+        try {
+            return new URL(address).getFile();
+        } catch (IOException e) {
+            throw ThrowableUtils.toUnchecked(String.format("Invalid image URL %s!", address), e);
         }
     }
 
@@ -91,6 +284,36 @@ public class Responder
         images_.add(image);
     }
 
+    /**
+     * Attach a file that's already encoded
+     */
+    public void addAttachment(final String fileName, final byte[] content)
+    {
+        Validate.isTrue(!isComplete(), "Cannot modify a Responder marked as completed!");
+        Validate.notNull(fileName);
+        Validate.notNull(content);
+        renderedAttachments_.add(new RenderedResponse.Attachment(fileName, content));
+    }
+
+    /**
+     * Record that this reply was built from a piece of PokeAPI data, so it can be forgotten when that data changes
+     */
+    public void addSource(final Class<?> type, final int id)
+    {
+        Validate.isTrue(!isComplete(), "Cannot modify a Responder marked as completed!");
+        sources_.add(new RenderedResponse.Source(type, id));
+    }
+
+    public ImmutableSet<RenderedResponse.Source> getSources()
+    {
+        return ImmutableSet.copyOf(sources_);
+    }
+
+    public Deadline getDeadline()
+    {
+        return deadline_;
+    }
+
     public MessageReceivedEvent getTrigger()
     {
         return trigger_;
@@ -105,4 +328,59 @@ public class Responder
     {
         return complete_;
     }
+
+    private static class Attachment
+    {
+        private final String description_;
+        private final String fileName_;
+        private final CompletableFuture<byte[]> content_;
+
+        private Attachment(final String description, final String fileName, final CompletableFuture<byte[]> content)
+        {
+            description_ = description;
+            fileName_ = fileName;
+            content_ = content;
+        }
+    }
+
+    private interface Part
+    {
+        void send() throws Exception;
+    }
+
+    /**
+     * Failures of the parts of a single response
+     */
+    private class Delivery
+    {
+        private final List<String> failedParts_ = new ArrayList<>();
+        private final List<Throwable> causes_ = new ArrayList<>();
+
+        void attempt(final String description, final Part part)
+        {
+            try {
+                // Don't send a part nobody is waiting for
+                deadline_.check();
+                part.send();
+            } catch (Exception e) {
+                fail(description, e instanceof CompletionException ? e.getCause() : e);
+            }
+        }
+
+        synchronized void fail(final String description, final Throwable cause)
+        {
+            failedParts_.add(description);
+            causes_.add(cause);
+        }
+
+        synchronized void throwIfFailed()
+        {
+            if (causes_.stream().anyMatch(cause -> cause instanceof DeadlineExceededException)) {
+                throw new DeadlineExceededException();
+            }
+            if (!causes_.isEmpty()) {
+                throw new ResponseFailedException(failedParts_, causes_);
+            }
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package dex.discord.respond;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import dex.discord.DexCommand;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Fully rendered replies to lookup commands, so that asking about the same thing twice only costs sending it
+ *
+ * Replies are keyed by command and looked-up id, and are only cached if they say which PokeAPI data they were built
+ * from (see {@link Responder#addSource}); failures and apologies never are.  A reply is forgotten as soon as any of
+ * the data it was built from is evicted from the {@link dex.pokemon.DynamicPokeApi}, so the next request for it renders
+ * it afresh.
+ */
+public class ResponseCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final SendScheduler sends_;
+    private final Cache<Key, RenderedResponse> rendered_;
+
+    /**
+     * @param maximumBytes  Rough bound on the memory held by cached replies
+     */
+    public ResponseCache(final SendScheduler sends, final long maximumBytes)
+    {
+        Validate.notNull(sends, "Cannot send cached replies without a send scheduler!");
+        sends_ = sends;
+        rendered_ = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, RenderedResponse response) -> response.getWeight())
+                .build();
+    }
+
+    /**
+     * Reply to a lookup, from the cache if it's been rendered before and otherwise by generating a new reply
+     * @param generator     Builds the reply when it isn't cached
+     */
+    public void respond(final DexCommand command, final int id, final MessageReceivedEvent event,
+            final Supplier<Responder> generator)
+    {
+        final Key key = new Key(command, id);
+        final RenderedResponse cached = rendered_.getIfPresent(key);
+        if (cached != null) {
+            Responder.replay(event, cached).respond(sends_);
+            return;
+        }
+
+        final Responder responder = generator.get();
+        if (responder.getSources().isEmpty()) {
+            responder.respond(sends_);
+            return;
+        }
+
+        final RenderedResponse rendered;
+        try {
+            rendered = responder.render().join();
+        } catch (CompletionException e) {
+            // Send whatever parts can still be sent, and report the rest as usual
+            LOG.warn("Could not render the reply to {} #{}; it won't be cached.", command, id, e.getCause());
+            responder.respond(sends_);
+            return;
+        }
+        rendered_.put(key, rendered);
+        Responder.replay(event, rendered).respond(sends_);
+    }
+
+    /**
+     * Render the reply to a lookup without sending it, so it can be sent along with others, from the cache if it's
+     * been rendered before
+     * @param generator     Builds the reply when it isn't cached
+     * @throws CompletionException  if any attachment couldn't be prepared
+     */
+    public RenderedResponse render(final DexCommand command, final int id, final Supplier<Responder> generator)
+    {
+        final Key key = new Key(command, id);
+        final RenderedResponse cached = rendered_.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Responder responder = generator.get();
+        final RenderedResponse rendered = responder.render().join();
+        // As when responding, replies not built from PokeAPI data, such as apologies, aren't worth keeping
+        if (!responder.getSources().isEmpty()) {
+            rendered_.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Forget every reply rendered from a piece of PokeAPI data
+     */
+    public void invalidate(final Class<?> type, final int id)
+    {
+        final boolean removed = rendered_.asMap().values().removeIf(response -> response.isRenderedFrom(type, id));
+        if (removed) {
+            LOG.info("Forgot replies rendered from {} #{}.", type.getSimpleName(), id);
+        }
+    }
+
+    private static class Key
+    {
+        private final DexCommand command_;
+        private final int id_;
+
+        Key(final DexCommand command, final int id)
+        {
+            command_ = command;
+            id_ = id;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return id_ == that.id_ && command_ == that.command_;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(command_, id_);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dex.discord.respond;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Thrown when some parts of a {@link Responder Responder's} reply couldn't be delivered
+ *
+ * Parts are delivered independently, so the parts not listed here were still sent.  The failure of each part is
+ * attached as a suppressed exception.
+ */
+public class ResponseFailedException extends RuntimeException
+{
+    private final ImmutableList<String> failedParts_;
+
+    ResponseFailedException(final List<String> failedParts, final List<Throwable> causes)
+    {
+        super(String.format("Failed to deliver %d part(s) of a response: %s", failedParts.size(), failedParts));
+        failedParts_ = ImmutableList.copyOf(failedParts);
+        causes.forEach(this::addSuppressed);
+    }
+
+    public ImmutableList<String> getFailedParts()
+    {
+        return failedParts_;
+    }
+}
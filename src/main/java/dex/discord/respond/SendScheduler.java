@@ -0,0 +1,387 @@
+package dex.discord.respond;
+
+import com.google.common.base.Ticker;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.discord.throttle.BucketLimit;
+import dex.discord.throttle.TokenBucket;
+import dex.util.ByteBufferInputStream;
+import dex.util.DiscordUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sx.blah.discord.handle.obj.IChannel;
+import sx.blah.discord.handle.obj.IMessage;
+import sx.blah.discord.util.RateLimitException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns every request the bot makes to Discord
+ *
+ * Requests are queued per route (a kind of request against a particular channel) and sent in order.  Each route is
+ * paced by a {@link TokenBucket} matching Discord's limit for it, so bursts queue up instead of being rejected.  When
+ * Discord rate limits anyway, the request is put back at the head of its route and retried after the delay Discord
+ * asked for, up to a few times; a global rate limit pauses every route.  Text queued for a channel that hasn't been
+ * sent yet is merged into a single message.
+ */
+public class SendScheduler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SendScheduler.class);
+
+    // A request Discord keeps rate limiting is failed rather than retried forever
+    private static final int MAX_RATE_LIMITED_ATTEMPTS = 5;
+
+    enum RouteKind
+    {
+        // Five messages every five seconds per channel
+        message(BucketLimit.of(5, 1, TimeUnit.SECONDS)),
+        // Five deletions every second per channel
+        delete(BucketLimit.of(5, 200, TimeUnit.MILLISECONDS)),
+        typing(BucketLimit.of(5, 1, TimeUnit.SECONDS));
+
+        private final BucketLimit limit_;
+
+        RouteKind(final BucketLimit limit)
+        {
+            limit_ = limit;
+        }
+    }
+
+    private final ScheduledExecutorService executor_;
+    // Only routes with something queued, or still recovering from what they last sent, are kept
+    private final ConcurrentMap<RouteKey, Route> routes_ = new ConcurrentHashMap<>();
+    private final AtomicLong globalResumeNanos_ = new AtomicLong(System.nanoTime());
+    private final AtomicLong rateLimitedCount_ = new AtomicLong();
+    private final AtomicLong coalescedCount_ = new AtomicLong();
+
+    /**
+     * @param workers   Threads sending requests; each route only ever uses one at a time
+     */
+    public SendScheduler(final int workers)
+    {
+        Validate.isTrue(workers > 0, "Cannot send anything without any workers!");
+        executor_ = Executors.newScheduledThreadPool(workers, new ThreadFactoryBuilder()
+                .setNameFormat("discord-send-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Queue a text message, merging it into text already queued for the same channel where it fits
+     */
+    public CompletableFuture<IMessage> sendMessage(final IChannel channel, final String content)
+    {
+        final RouteKey key = new RouteKey(RouteKind.message, channel.getID());
+        final Route route = routes_.computeIfAbsent(key, Route::new);
+        synchronized (route) {
+            // A retired route is empty, so nothing is ever merged into it
+            final Send<?> last = route.pending_.peekLast();
+            if (last instanceof TextSend && ((TextSend) last).tryAppend(content)) {
+                coalescedCount_.incrementAndGet();
+                return ((TextSend) last).future_;
+            }
+        }
+        return enqueue(key, new TextSend(channel, content));
+    }
+
+    /**
+     * Queue a file upload, with an optional message alongside it
+     *
+     * The stream is read fully before this returns, so the caller is free to close it right away.
+     */
+    public CompletableFuture<IMessage> sendFile(final IChannel channel, final InputStream stream,
+            final String fileName, final String message)
+    {
+        final byte[] content;
+        try {
+            content = ByteStreams.toByteArray(stream);
+        } catch (IOException e) {
+            final CompletableFuture<IMessage> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return sendFile(channel, content, fileName, message);
+    }
+
+    /**
+     * Queue a file upload, with an optional message alongside it
+     */
+    public CompletableFuture<IMessage> sendFile(final IChannel channel, final byte[] content, final String fileName,
+            final String message)
+    {
+        return sendFile(channel, ByteBuffer.wrap(content), fileName, message);
+    }
+
+    /**
+     * Queue a file upload, with an optional message alongside it
+     *
+     * The file is streamed straight from the buffer's remaining bytes, which mustn't change until the upload is done.
+     */
+    public CompletableFuture<IMessage> sendFile(final IChannel channel, final ByteBuffer content,
+            final String fileName, final String message)
+    {
+        // Every attempt reads from its own view of the buffer, so a retry starts from the beginning
+        final ByteBuffer file = content.slice();
+        return enqueue(new RouteKey(RouteKind.message, channel.getID()), new Send<IMessage>(() -> message == null ?
+                channel.sendFile(new ByteBufferInputStream(file.duplicate()), fileName) :
+                channel.sendFile(new ByteBufferInputStream(file.duplicate()), fileName, message)));
+    }
+
+    public CompletableFuture<Void> delete(final IMessage message)
+    {
+        return enqueue(new RouteKey(RouteKind.delete, message.getChannel().getID()), new Send<Void>(() -> {
+            message.delete();
+            return null;
+        }));
+    }
+
+    public CompletableFuture<Void> setTypingStatus(final IChannel channel, final boolean typing)
+    {
+        return enqueue(new RouteKey(RouteKind.typing, channel.getID()), new Send<Void>(() -> {
+            channel.setTypingStatus(typing);
+            return null;
+        }));
+    }
+
+    public long getRateLimitedCount()
+    {
+        return rateLimitedCount_.get();
+    }
+
+    public long getCoalescedCount()
+    {
+        return coalescedCount_.get();
+    }
+
+    private <T> CompletableFuture<T> enqueue(final RouteKey key, final Send<T> send)
+    {
+        while (true) {
+            final Route route = routes_.computeIfAbsent(key, Route::new);
+            final boolean startDraining;
+            synchronized (route) {
+                if (route.retired_) {
+                    // Dropped since it was looked up; a fresh route takes its place
+                    continue;
+                }
+                route.pending_.addLast(send);
+                startDraining = !route.draining_;
+                route.draining_ = true;
+            }
+            if (startDraining) {
+                executor_.execute(() -> drain(route));
+            }
+            return send.future_;
+        }
+    }
+
+    /**
+     * Send whatever is queued on a route, one request at a time, until it's empty or has to wait
+     */
+    private void drain(final Route route)
+    {
+        while (true) {
+            final Send<?> send;
+            synchronized (route) {
+                if (route.pending_.isEmpty()) {
+                    route.draining_ = false;
+                    tryRetire(route);
+                    return;
+                }
+
+                final long now = System.nanoTime();
+                final long wait = Math.max(Math.max(route.resumeNanos_, globalResumeNanos_.get()) - now,
+                        route.bucket_.nanosUntilAvailable(1));
+                if (wait > 0) {
+                    executor_.schedule(() -> drain(route), wait, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                route.bucket_.tryAcquire(1);
+                // Once taken off the queue, nothing more can be merged into it
+                send = route.pending_.pollFirst();
+            }
+
+            try {
+                send.attempt();
+            } catch (RateLimitException e) {
+                final long delayNanos = TimeUnit.MILLISECONDS.toNanos(e.getRetryDelay());
+                final long resume = System.nanoTime() + delayNanos;
+                if (e.isGlobal()) {
+                    globalResumeNanos_.accumulateAndGet(resume, Math::max);
+                }
+                final boolean givingUp = ++send.rateLimitedAttempts_ >= MAX_RATE_LIMITED_ATTEMPTS;
+                LOG.info("Rate limited on {}{}; {} in {}ms ({} rate limits so far).", route.key_,
+                        e.isGlobal() ? " (globally)" : "", givingUp ? "giving up, resuming" : "retrying",
+                        e.getRetryDelay(), rateLimitedCount_.incrementAndGet());
+                synchronized (route) {
+                    route.resumeNanos_ = Math.max(route.resumeNanos_, resume);
+                    if (!givingUp) {
+                        route.pending_.addFirst(send);
+                    }
+                }
+                if (givingUp) {
+                    send.future_.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop an idle route once it's as good as a fresh one, with a full bucket and no rate limit left to wait out, or
+     * check again once it will be
+     *
+     * Only called while holding the route's lock.
+     */
+    private void tryRetire(final Route route)
+    {
+        if (route.draining_ || !route.pending_.isEmpty() || route.retired_ || route.retireScheduled_) {
+            return;
+        }
+
+        final long rest = Math.max(route.resumeNanos_ - System.nanoTime(),
+                route.bucket_.nanosUntilAvailable(route.key_.kind_.limit_.getCapacity()));
+        if (rest > 0) {
+            route.retireScheduled_ = true;
+            executor_.schedule(() -> {
+                synchronized (route) {
+                    route.retireScheduled_ = false;
+                    tryRetire(route);
+                }
+            }, rest, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        route.retired_ = true;
+        routes_.remove(route.key_, route);
+    }
+
+    private interface Request<T>
+    {
+        T call() throws Exception;
+    }
+
+    private static class Send<T>
+    {
+        final CompletableFuture<T> future_ = new CompletableFuture<>();
+        // Only touched by the one worker draining the route at a time
+        int rateLimitedAttempts_ = 0;
+        private final Request<T> request_;
+
+        Send(final Request<T> request)
+        {
+            request_ = request;
+        }
+
+        /**
+         * Make the request, completing this send unless Discord asks for it to be retried later
+         */
+        void attempt() throws RateLimitException
+        {
+            try {
+                future_.complete(request_.call());
+            } catch (RateLimitException e) {
+                throw e;
+            } catch (Exception e) {
+                future_.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class TextSend extends Send<IMessage>
+    {
+        private final StringBuilder content_;
+
+        TextSend(final IChannel channel, final String content)
+        {
+            this(channel, new StringBuilder(content));
+        }
+
+        private TextSend(final IChannel channel, final StringBuilder content)
+        {
+            super(() -> channel.sendMessage(content.toString()));
+            content_ = content;
+        }
+
+        /**
+         * Merge more text into this message, if it would still fit
+         * Only called while holding the lock of the route this is queued on.
+         */
+        boolean tryAppend(final String content)
+        {
+            if (content_.length() + 1 + content.length() > DiscordUtils.MAX_MESSAGE_LENGTH) {
+                return false;
+            }
+            content_.append('\n').append(content);
+            return true;
+        }
+    }
+
+    private static class Route
+    {
+        final RouteKey key_;
+        final TokenBucket bucket_;
+        final Deque<Send<?>> pending_ = new ArrayDeque<>();
+        boolean draining_ = false;
+        long resumeNanos_ = System.nanoTime();
+        // Whether a check to drop this route is already waiting for it to recover
+        boolean retireScheduled_ = false;
+        // Dropped from the scheduler; sends must be queued on a fresh route instead
+        boolean retired_ = false;
+
+        Route(final RouteKey key)
+        {
+            key_ = key;
+            bucket_ = new TokenBucket(key.kind_.limit_, Ticker.systemTicker());
+        }
+    }
+
+    private static class RouteKey
+    {
+        private final RouteKind kind_;
+        private final String channelId_;
+
+        RouteKey(final RouteKind kind, final String channelId)
+        {
+            kind_ = kind;
+            channelId_ = channelId;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final RouteKey that = (RouteKey) o;
+            return kind_ == that.kind_ && channelId_.equals(that.channelId_);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(kind_, channelId_);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s route for channel %s", kind_, channelId_);
+        }
+    }
+}
@@ -1,33 +1,76 @@
 package dex.discord.respond;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import sx.blah.discord.handle.obj.IChannel;
 
 import java.io.Closeable;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Show that the bot is typing, but only once a reply has taken long enough for anyone to notice
+ *
+ * Replies ready within the grace period never touch the typing indicator, saving two Discord requests each.  Once
+ * started, Discord4J keeps refreshing the indicator until it's turned off, however long the reply takes.
+ */
 public class TypingStatus implements Closeable
 {
+    private static final long DEFAULT_GRACE_MILLIS = 750;
+
+    // Only ever schedules the start of typing, so one thread is plenty
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("typing-%d")
+                    .setDaemon(true)
+                    .build());
+
+    private final SendScheduler sends_;
     private final IChannel channel_;
+    private final ScheduledFuture<?> start_;
+    private boolean started_ = false;
 
-    private TypingStatus(final IChannel channel)
+    private TypingStatus(final SendScheduler sends, final IChannel channel, final long grace, final TimeUnit unit)
     {
+        sends_ = sends;
         channel_ = channel;
+        // Held so that starting can't run before it can see what to cancel
+        synchronized (this) {
+            start_ = SCHEDULER.schedule(this::startTyping, grace, unit);
+        }
+    }
+
+    public static TypingStatus start(final SendScheduler sends, final IChannel channel)
+    {
+        return start(sends, channel, DEFAULT_GRACE_MILLIS, TimeUnit.MILLISECONDS);
     }
 
-    public static TypingStatus start(final IChannel channel)
+    /**
+     * @param grace     How long to wait before showing the indicator
+     */
+    public static TypingStatus start(final SendScheduler sends, final IChannel channel, final long grace,
+            final TimeUnit unit)
     {
-        setStatusAsync(channel, true);
-        return new TypingStatus(channel);
+        return new TypingStatus(sends, channel, grace, unit);
     }
 
     @Override
-    public void close()
+    public synchronized void close()
     {
-        setStatusAsync(channel_, false);
+        start_.cancel(false);
+        if (started_) {
+            sends_.setTypingStatus(channel_, false);
+            started_ = false;
+        }
     }
 
-    private static void setStatusAsync(final IChannel channel, final boolean status)
+    private synchronized void startTyping()
     {
-        ForkJoinPool.commonPool().execute(() -> channel.setTypingStatus(status));
+        // A reply that finished just as the grace period ran out has already cancelled this
+        if (!start_.isCancelled()) {
+            sends_.setTypingStatus(channel_, true);
+            started_ = true;
+        }
     }
 }
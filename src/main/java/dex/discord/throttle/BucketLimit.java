@@ -0,0 +1,48 @@
+package dex.discord.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and refill rate of a {@link TokenBucket}
+ */
+public class BucketLimit
+{
+    private final int capacity_;
+    private final long refillPeriodNanos_;
+
+    private BucketLimit(final int capacity, final long refillPeriodNanos)
+    {
+        capacity_ = capacity;
+        refillPeriodNanos_ = refillPeriodNanos;
+    }
+
+    /**
+     * @param capacity      Maximum number of tokens, i.e. the largest burst allowed
+     * @param refillPeriod  Time taken to restore a single token
+     */
+    public static BucketLimit of(final int capacity, final long refillPeriod, final TimeUnit unit)
+    {
+        Validate.isTrue(capacity > 0, "A bucket must hold at least one token!");
+        Validate.isTrue(refillPeriod > 0, "A bucket must refill at a positive rate!");
+        Validate.notNull(unit);
+        return new BucketLimit(capacity, unit.toNanos(refillPeriod));
+    }
+
+    public int getCapacity()
+    {
+        return capacity_;
+    }
+
+    public long getRefillPeriodNanos()
+    {
+        return refillPeriodNanos_;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d tokens, 1 per %dms", capacity_, TimeUnit.NANOSECONDS.toMillis(refillPeriodNanos_));
+    }
+}
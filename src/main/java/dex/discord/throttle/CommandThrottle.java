@@ -0,0 +1,143 @@
+package dex.discord.throttle;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.AtomicLongMap;
+import dex.discord.DexCommand;
+import dex.discord.respond.SendScheduler;
+import dex.util.DiscordUtils;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
+import sx.blah.discord.handle.obj.IGuild;
+import sx.blah.discord.handle.obj.IMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admit or shed commands based on {@link TokenBucket token buckets} kept per user, per channel and per guild
+ */
+public class CommandThrottle
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CommandThrottle.class);
+
+    // Only tell a user they're being throttled once in a while, or the rejections become spam of their own
+    private static final long REJECTION_QUIET_PERIOD_SECONDS = 30;
+    private static final String REJECTION = "Slow down!  I can only look up so many things at once.";
+    // Buckets idle this long are full again anyway, so forgetting them loses nothing
+    private static final long IDLE_BUCKET_EXPIRY_MINUTES = 10;
+
+    public enum Scope
+    {
+        user,
+        channel,
+        guild
+    }
+
+    private final SendScheduler sends_;
+    private final Map<Scope, LoadingCache<String, TokenBucket>> buckets_;
+    private final Cache<String, Boolean> recentlyRejected_;
+    private final AtomicLongMap<Scope> shedCounts_ = AtomicLongMap.create();
+
+    private CommandThrottle(final SendScheduler sends, final Map<Scope, LoadingCache<String, TokenBucket>> buckets)
+    {
+        sends_ = sends;
+        buckets_ = buckets;
+        recentlyRejected_ = CacheBuilder.newBuilder()
+                .expireAfterWrite(REJECTION_QUIET_PERIOD_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public static CommandThrottle withLimits(final SendScheduler sends, final BucketLimit userLimit,
+            final BucketLimit channelLimit, final BucketLimit guildLimit)
+    {
+        Validate.notNull(sends, "Cannot reply to shed commands without a send scheduler!");
+        Validate.notNull(userLimit, "Cannot throttle users without a limit!");
+        Validate.notNull(channelLimit, "Cannot throttle channels without a limit!");
+        Validate.notNull(guildLimit, "Cannot throttle guilds without a limit!");
+        LOG.info("Throttling commands per user ({}), per channel ({}) and per guild ({}).",
+                userLimit, channelLimit, guildLimit);
+
+        return new CommandThrottle(sends, ImmutableMap.of(
+                Scope.user, bucketCache(userLimit),
+                Scope.channel, bucketCache(channelLimit),
+                Scope.guild, bucketCache(guildLimit)));
+    }
+
+    /**
+     * Charge the command's cost against every bucket its message falls into, replying with a rejection if any are empty
+     * @return  true if the command should be dispatched
+     */
+    public boolean tryAdmit(final MessageReceivedEvent event, final DexCommand command)
+    {
+        final IMessage message = event.getMessage();
+        final IGuild guild = message.getGuild();
+        // Private messages have no guild to charge
+        final Map<Scope, String> keys = guild == null ?
+                ImmutableMap.of(
+                        Scope.user, message.getAuthor().getID(),
+                        Scope.channel, message.getChannel().getID()) :
+                ImmutableMap.of(
+                        Scope.user, message.getAuthor().getID(),
+                        Scope.channel, message.getChannel().getID(),
+                        Scope.guild, guild.getID());
+
+        final int tokens = command.getCost().getTokens();
+        final List<TokenBucket> charged = new ArrayList<>(keys.size());
+        for (final Map.Entry<Scope, String> key : keys.entrySet()) {
+            final TokenBucket bucket = buckets_.get(key.getKey()).getUnchecked(key.getValue());
+            if (!bucket.tryAcquire(tokens)) {
+                // Give back whatever the earlier buckets were charged, since nothing will be dispatched
+                charged.forEach(chargedBucket -> chargedBucket.refund(tokens));
+                shed(event, command, key.getKey());
+                return false;
+            }
+            charged.add(bucket);
+        }
+        return true;
+    }
+
+    /**
+     * Number of commands shed so far, by the scope of the bucket that ran dry
+     */
+    public ImmutableMap<Scope, Long> getShedCounts()
+    {
+        return ImmutableMap.copyOf(shedCounts_.asMap());
+    }
+
+    private void shed(final MessageReceivedEvent event, final DexCommand command, final Scope scope)
+    {
+        final long scopeTotal = shedCounts_.incrementAndGet(scope);
+        final String userId = event.getMessage().getAuthor().getID();
+        LOG.info("Shed command {} from user {} on the {} bucket ({} shed on that bucket so far).",
+                command, userId, scope, scopeTotal);
+
+        if (recentlyRejected_.getIfPresent(userId) == null) {
+            recentlyRejected_.put(userId, true);
+            DiscordUtils.trySendMessage(sends_, event.getMessage().getChannel(), REJECTION);
+        }
+    }
+
+    private static LoadingCache<String, TokenBucket> bucketCache(final BucketLimit limit)
+    {
+        return CacheBuilder.newBuilder()
+                .expireAfterAccess(IDLE_BUCKET_EXPIRY_MINUTES, TimeUnit.MINUTES)
+                .build(new CacheLoader<String, TokenBucket>()
+                {
+                    @Override
+                    public TokenBucket load(@NotNull String key) throws Exception
+                    {
+                        return new TokenBucket(limit, Ticker.systemTicker());
+                    }
+                });
+    }
+}
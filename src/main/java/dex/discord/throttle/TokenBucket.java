@@ -0,0 +1,79 @@
+package dex.discord.throttle;
+
+import com.google.common.base.Ticker;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Classic token bucket: tokens refill continuously up to a fixed capacity, and each admitted request spends some
+ * @see <a href="https://en.wikipedia.org/wiki/Token_bucket">Token bucket</a>
+ */
+public class TokenBucket
+{
+    private final BucketLimit limit_;
+    private final Ticker ticker_;
+
+    private double tokens_;
+    private long lastRefillNanos_;
+
+    public TokenBucket(final BucketLimit limit, final Ticker ticker)
+    {
+        Validate.notNull(limit, "Cannot construct a bucket without a limit!");
+        Validate.notNull(ticker, "Cannot construct a bucket without a time source!");
+        limit_ = limit;
+        ticker_ = ticker;
+        // Start full, so the first burst is always allowed
+        tokens_ = limit.getCapacity();
+        lastRefillNanos_ = ticker.read();
+    }
+
+    /**
+     * Spend the given number of tokens if they're all available; otherwise spend nothing
+     * @return  true if the tokens were spent
+     */
+    public synchronized boolean tryAcquire(final int permits)
+    {
+        Validate.isTrue(permits > 0, "Must acquire a positive number of tokens!");
+        refill();
+        if (tokens_ < permits) {
+            return false;
+        }
+        tokens_ -= permits;
+        return true;
+    }
+
+    /**
+     * Return tokens spent by a request that ended up not being admitted
+     */
+    public synchronized void refund(final int permits)
+    {
+        Validate.isTrue(permits > 0, "Must refund a positive number of tokens!");
+        tokens_ = Math.min(limit_.getCapacity(), tokens_ + permits);
+    }
+
+    public synchronized double availableTokens()
+    {
+        refill();
+        return tokens_;
+    }
+
+    /**
+     * @return  How long until the given number of tokens will be available, or 0 if they already are
+     */
+    public synchronized long nanosUntilAvailable(final int permits)
+    {
+        Validate.isTrue(permits <= limit_.getCapacity(), "Can never acquire more tokens than the bucket holds!");
+        refill();
+        final double missing = permits - tokens_;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing * limit_.getRefillPeriodNanos());
+    }
+
+    private void refill()
+    {
+        final long now = ticker_.read();
+        final long elapsed = now - lastRefillNanos_;
+        if (elapsed > 0) {
+            tokens_ = Math.min(limit_.getCapacity(), tokens_ + (double) elapsed / limit_.getRefillPeriodNanos());
+            lastRefillNanos_ = now;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package dex.pokemon;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Every species' artwork packed into one file, memory-mapped so that artwork is read straight from the page cache
+ *
+ * The file is a header (magic number, version, number of index slots), then an index with a fixed-size slot for
+ * every ID from 0 up (8-byte offset, 4-byte length; zero length where there's no artwork), then the artwork itself.
+ * Finding artwork is a single index read.
+ *
+ * Build an archive from a directory of {@code <id>.png} files with {@link #main}, optionally along with a second
+ * archive of the renditions {@link ArtworkCache} sends, so those are mapped too instead of rendered at runtime.
+ */
+public class ArtworkArchive
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ArtworkArchive.class);
+
+    private static final int MAGIC = 0x44584152; // "DXAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+    private static final Pattern ARTWORK_NAME = Pattern.compile("(\\d+)\\.png");
+
+    private final MappedByteBuffer mapped_;
+    private final int slots_;
+
+    private ArtworkArchive(final MappedByteBuffer mapped, final int slots)
+    {
+        mapped_ = mapped;
+        slots_ = slots;
+    }
+
+    public static ArtworkArchive open(final Path path) throws IOException
+    {
+        final MappedByteBuffer mapped;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping outlives the channel
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Validate.isTrue(mapped.capacity() >= HEADER_BYTES && mapped.getInt(0) == MAGIC,
+                "%s is not an artwork archive!", path);
+        Validate.isTrue(mapped.getInt(Integer.BYTES) == VERSION,
+                "%s is version %d of the artwork archive format, not %d!", path, mapped.getInt(Integer.BYTES), VERSION);
+        final int slots = mapped.getInt(2 * Integer.BYTES);
+        Validate.isTrue(HEADER_BYTES + (long) slots * SLOT_BYTES <= mapped.capacity(),
+                "%s is truncated!", path);
+
+        LOG.info("Mapped artwork archive {} ({} bytes, {} index slots).", path, mapped.capacity(), slots);
+        return new ArtworkArchive(mapped, slots);
+    }
+
+    /**
+     * @return  A read-only view of the species' artwork, if there is any; each call gets its own position and limit
+     */
+    public Optional<ByteBuffer> get(final int speciesId)
+    {
+        if (speciesId < 0 || speciesId >= slots_) {
+            return Optional.empty();
+        }
+        final int slot = HEADER_BYTES + speciesId * SLOT_BYTES;
+        final long offset = mapped_.getLong(slot);
+        final int length = mapped_.getInt(slot + Long.BYTES);
+        if (length == 0) {
+            return Optional.empty();
+        }
+
+        final ByteBuffer artwork = mapped_.asReadOnlyBuffer();
+        artwork.position((int) offset);
+        artwork.limit((int) offset + length);
+        return Optional.of(artwork.slice());
+    }
+
+    /**
+     * Pack every {@code <id>.png} in a directory into an archive
+     */
+    public static void build(final Path directory, final Path archive) throws IOException
+    {
+        final SortedMap<Integer, Path> artwork = list(directory);
+        final int packed = write(artwork, archive, Optional::of);
+        LOG.info("Packed {} pieces of artwork from {} into {}.", packed, directory, archive);
+    }
+
+    /**
+     * As {@link #build}, also packing a second archive with each piece's {@link ArtworkCache rendition}
+     *
+     * Artwork whose rendition is no smaller than the original is left out of the rendition archive, so the original is
+     * sent instead.
+     */
+    public static void build(final Path directory, final Path archive, final Path renditionArchive) throws IOException
+    {
+        build(directory, archive);
+        final int packed = write(list(directory), renditionArchive,
+                original -> ArtworkCache.smallerRendition(ByteBuffer.wrap(original)));
+        LOG.info("Packed {} renditions of artwork from {} into {}.", packed, directory, renditionArchive);
+    }
+
+    private interface Packer
+    {
+        /**
+         * @return  What to pack for the given artwork, if anything
+         */
+        Optional<byte[]> pack(byte[] original) throws IOException;
+    }
+
+    private static SortedMap<Integer, Path> list(final Path directory) throws IOException
+    {
+        final SortedMap<Integer, Path> artwork = new TreeMap<>();
+        try (final Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                final Matcher matcher = ARTWORK_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    artwork.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            });
+        }
+        Validate.isTrue(!artwork.isEmpty(), "No artwork found in %s!", directory);
+        return artwork;
+    }
+
+    /**
+     * @return  How many pieces of artwork were packed
+     */
+    private static int write(final SortedMap<Integer, Path> artwork, final Path archive, final Packer packer)
+            throws IOException
+    {
+        int packed = 0;
+        final int slots = artwork.lastKey() + 1;
+        final ByteBuffer index = ByteBuffer.allocate(HEADER_BYTES + slots * SLOT_BYTES);
+        index.putInt(MAGIC).putInt(VERSION).putInt(slots);
+
+        try (final FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // Artwork goes after the index, which is filled in as it's written and then written last
+            long offset = index.capacity();
+            channel.position(offset);
+            for (final SortedMap.Entry<Integer, Path> entry : artwork.entrySet()) {
+                final Optional<byte[]> packing = packer.pack(Files.readAllBytes(entry.getValue()));
+                if (!packing.isPresent()) {
+                    continue;
+                }
+                final ByteBuffer content = ByteBuffer.wrap(packing.get());
+                index.putLong(HEADER_BYTES + entry.getKey() * SLOT_BYTES, offset);
+                index.putInt(HEADER_BYTES + entry.getKey() * SLOT_BYTES + Long.BYTES, content.remaining());
+                offset += content.remaining();
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                packed++;
+            }
+            Validate.isTrue(offset <= Integer.MAX_VALUE, "Artwork archives can't be larger than 2GB!");
+
+            index.rewind();
+            channel.position(0);
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Usage: {@code ArtworkArchive <directory of <id>.png files> <archive to write> [rendition archive to write]}
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        Validate.isTrue(args.length == 2 || args.length == 3,
+                "Usage: ArtworkArchive <artwork directory> <archive file> [rendition archive file]");
+        if (args.length == 3) {
+            build(Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]));
+        } else {
+            build(Paths.get(args[0]), Paths.get(args[1]));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dex.pokemon;
+
+import dex.util.ByteBufferInputStream;
+import dex.util.ImageVariants;
+import dex.util.PersistentByteCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * The smallest rendition of each species' {@link OfficialArtwork official artwork} that's fit to send
+ *
+ * Renditions are capped at the size Discord shows images inline, and use a colour palette where that's lossless; if
+ * neither makes the artwork any smaller, the original is sent.  Renditions are read from a mapped
+ * {@link ArtworkArchive} built alongside the artwork's where there is one.  Otherwise they're rendered once and kept
+ * on disk, with the most recently used also kept in memory.
+ */
+public class ArtworkCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ArtworkCache.class);
+
+    // Discord shows larger images inline at about this size anyway
+    static final int MAX_DIMENSION = 400;
+    // Stored in place of a rendition that's no smaller than the original, so the original is sent as it is
+    private static final byte[] NO_SMALLER_RENDITION = new byte[0];
+
+    private final OfficialArtwork artwork_;
+    private final Optional<ArtworkArchive> packed_;
+    private final PersistentByteCache renditions_;
+
+    /**
+     * @param artwork       Original artwork
+     * @param packed        Renditions packed ahead of time, if they have been
+     * @param directory     Where renditions that weren't packed are kept between runs
+     * @param maximumBytes  Rough bound on the memory held by renditions that weren't packed
+     */
+    public ArtworkCache(final OfficialArtwork artwork, final Optional<ArtworkArchive> packed, final Path directory,
+            final long maximumBytes)
+    {
+        artwork_ = artwork;
+        packed_ = packed;
+        renditions_ = new PersistentByteCache(directory, "%d.png", maximumBytes);
+    }
+
+    /**
+     * @return  The species' artwork as a PNG, if it has any
+     */
+    public Optional<ByteBuffer> get(final int speciesId)
+    {
+        final Optional<ByteBuffer> original = artwork_.get(speciesId);
+        if (!original.isPresent()) {
+            return Optional.empty();
+        }
+
+        if (packed_.isPresent()) {
+            // Artwork without a packed rendition had none smaller than the original
+            final Optional<ByteBuffer> rendition = packed_.get().get(speciesId);
+            return rendition.isPresent() ? rendition : original;
+        }
+
+        try {
+            final Optional<byte[]> stored = renditions_.getIfPresent(speciesId);
+            final byte[] rendition = stored.isPresent() ? stored.get() : render(speciesId, original.get());
+            return rendition.length == 0 ?
+                    original :
+                    Optional.of(ByteBuffer.wrap(rendition));
+        } catch (Exception e) {
+            LOG.warn("Could not get a rendition of the artwork for species #{}; sending the original.", speciesId, e);
+            return original;
+        }
+    }
+
+    private byte[] render(final int id, final ByteBuffer original) throws IOException
+    {
+        final byte[] rendition = smallerRendition(original).orElse(NO_SMALLER_RENDITION);
+        renditions_.put(id, rendition);
+        return rendition;
+    }
+
+    /**
+     * @return  The rendition of the artwork to send, unless it's no smaller than the original
+     */
+    static Optional<byte[]> smallerRendition(final ByteBuffer original) throws IOException
+    {
+        final byte[] rendition;
+        try (final InputStream art = new ByteBufferInputStream(original.duplicate())) {
+            rendition = ImageVariants.smallestPng(ImageIO.read(art), MAX_DIMENSION);
+        }
+        return rendition.length < original.remaining() ? Optional.of(rendition) : Optional.empty();
+    }
+}
@@ -1,16 +1,20 @@
 package dex.pokemon;
 
 import com.github.rholder.retry.*;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.util.Deadline;
+import dex.util.DeadlineExceededException;
 import dex.util.ThrowableUtils;
 import me.sargunvohra.lib.pokekotlin.client.PokeApi;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
 import org.apache.commons.lang3.Validate;
-import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,8 +22,17 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -30,12 +43,40 @@ public class DynamicPokeApi
 {
     private static final Logger LOG = LoggerFactory.getLogger(DynamicPokeApi.class);
 
-    // Mapping of data types to data accessors
-    private final ImmutableMap<Class<?>, Function<Integer, ?>> dataTypeToAccessor_;
+    // Loads run here so that callers can stop waiting on them at their deadline; past this many, they queue
+    private static final int LOADER_THREADS = 32;
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(LOADER_THREADS,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("pokeapi-loader-%d")
+                    .setDaemon(true)
+                    .build());
+    // Batch crawls fetch this many objects at a time, rather than queueing several hundred loads at once
+    private static final int CRAWL_BATCH_SIZE = 32;
+    // Crawls get threads of their own, so that a build in progress never holds up a user's lookup
+    private static final ExecutorService CRAWLER = Executors.newFixedThreadPool(CRAWL_BATCH_SIZE,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("pokeapi-crawler-%d")
+                    .setDaemon(true)
+                    .build());
 
-    private DynamicPokeApi(final ImmutableMap<Class<?>, Function<Integer, ?>> dataTypeToAccessor)
+    // Mapping of data types to data accessors, which stop retrying at the given deadline
+    private final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> dataTypeToAccessor_;
+    // The same accessors without the cache, for crawls that shouldn't keep what they fetch
+    private final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> dataTypeToUncachedAccessor_;
+    // Told about every object dropped from the cache, so anything derived from it can be dropped too
+    private final List<BiConsumer<Class<?>, Integer>> evictionListeners_;
+    // Told about every object loaded into the cache, so anything derived from it can be brought up to date
+    private final List<BiConsumer<Class<?>, Object>> loadListeners_;
+
+    private DynamicPokeApi(final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> dataTypeToAccessor,
+            final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> dataTypeToUncachedAccessor,
+            final List<BiConsumer<Class<?>, Integer>> evictionListeners,
+            final List<BiConsumer<Class<?>, Object>> loadListeners)
     {
         dataTypeToAccessor_ = dataTypeToAccessor;
+        dataTypeToUncachedAccessor_ = dataTypeToUncachedAccessor;
+        evictionListeners_ = evictionListeners;
+        loadListeners_ = loadListeners;
     }
 
     public static DynamicPokeApi wrap(final PokeApi client, Class<?>... supportedDataTypes)
@@ -54,7 +95,10 @@ public class DynamicPokeApi
         final List<Method> accessors = Arrays.stream(apiClass.getMethods())
                 .filter((Method m) -> supportedDataTypes.contains(m.getReturnType()))
                 .collect(Collectors.toList());
-        final Map<Class<?>, Function<Integer, ?>> accessorMap = new HashMap<>(accessors.size());
+        final Map<Class<?>, BiFunction<Integer, Deadline, ?>> accessorMap = new HashMap<>(accessors.size());
+        final Map<Class<?>, BiFunction<Integer, Deadline, ?>> uncachedAccessorMap = new HashMap<>(accessors.size());
+        final List<BiConsumer<Class<?>, Integer>> evictionListeners = new CopyOnWriteArrayList<>();
+        final List<BiConsumer<Class<?>, Object>> loadListeners = new CopyOnWriteArrayList<>();
 
         // Use reflection to acquire, then wrap, functions that return the desired data types
         // This will totally, messily break if the API for the underlying client changes.
@@ -63,8 +107,13 @@ public class DynamicPokeApi
             // Identify any duplicate methods for obtaining the same data
             final Class<?> returnType = method.getReturnType();
             LOG.info("Wrapping access to data of type: {}", returnType.getSimpleName());
-            final Function<Integer, ?> wrappedAccessor = wrapAccessorMethod(client, method);
-            final Function<Integer, ?> previousAccessor = accessorMap.put(returnType, wrappedAccessor);
+            final BiFunction<Integer, Deadline, ?> uncachedAccessor = wrapAccessorMethod(client, method);
+            final BiFunction<Integer, Deadline, ?> wrappedAccessor = attachDefaultCache(uncachedAccessor,
+                    id -> evictionListeners.forEach(listener -> listener.accept(returnType, id)),
+                    loaded -> loadListeners.forEach(listener -> listener.accept(returnType, loaded)),
+                    compactorFor(returnType));
+            final BiFunction<Integer, Deadline, ?> previousAccessor = accessorMap.put(returnType, wrappedAccessor);
+            uncachedAccessorMap.put(returnType, uncachedAccessor);
 
             Validate.isTrue(previousAccessor == null, "%s exposes an API that has multiple accessors for data of type: %s!",
                     apiClass.getSimpleName(), returnType.getSimpleName());
@@ -74,43 +123,181 @@ public class DynamicPokeApi
                 "Accessors for all data types not found!  Missing types: %s",
                 Sets.difference(accessorMap.keySet(), supportedDataTypes));
 
-        final ImmutableMap<Class<?>, Function<Integer, ?>> immutableAccessorMap = ImmutableMap.copyOf(accessorMap);
+        final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> immutableAccessorMap =
+                ImmutableMap.copyOf(accessorMap);
         LOG.info("Wrapped accessors for the following data types: {}", immutableAccessorMap.keySet().asList());
 
-        return new DynamicPokeApi(immutableAccessorMap);
+        return new DynamicPokeApi(immutableAccessorMap, ImmutableMap.copyOf(uncachedAccessorMap), evictionListeners,
+                loadListeners);
     }
 
     public <T> Optional<T> get(final Class<T> clazz, final int id)
     {
-        final Function<Integer, T> accessor = getAccessorFor(clazz);
+        final BiFunction<Integer, Deadline, T> accessor = getAccessorFor(dataTypeToAccessor_, clazz);
         try {
-            final T result = accessor.apply(id);
+            final T result = accessor.apply(id, Deadline.none());
             return Optional.of(result);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
+    /**
+     * As {@link #get(Class, int)}, but without waiting, so that several fetches can be under way at once
+     */
+    public <T> CompletableFuture<Optional<T>> getAsync(final Class<T> clazz, final int id)
+    {
+        return CompletableFuture.supplyAsync(() -> get(clazz, id), LOADER);
+    }
+
+    /**
+     * As {@link #get(Class, int)}, but stop waiting once the deadline has passed
+     * @throws DeadlineExceededException if the data couldn't be obtained in time
+     */
+    public <T> Optional<T> get(final Class<T> clazz, final int id, final Deadline deadline)
+    {
+        deadline.check();
+        final BiFunction<Integer, Deadline, T> accessor = getAccessorFor(dataTypeToAccessor_, clazz);
+        // The load itself is left running until its last attempt before the deadline: it's shared through the cache
+        // with any other request for the same data, and finishing it means the next request for it is answered
+        // immediately
+        final Future<T> result = LOADER.submit(() -> {
+            // Not worth starting once nobody is waiting for it
+            deadline.check();
+            return accessor.apply(id, deadline);
+        });
+        try {
+            return Optional.of(result.get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            LOG.info("Gave up waiting on {} #{} at its deadline.", clazz.getSimpleName(), id);
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ThrowableUtils.toUnchecked(e);
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Fetch several objects of the same type at once, waiting on them together rather than one after another
+     * @return  Every object that could be obtained, by id
+     * @throws DeadlineExceededException if the data couldn't all be obtained in time
+     */
+    public <T> Map<Integer, T> getAll(final Class<T> clazz, final Collection<Integer> ids, final Deadline deadline)
+    {
+        return getAll(clazz, getAccessorFor(dataTypeToAccessor_, clazz), ids, LOADER, deadline);
+    }
+
+    /**
+     * Fetch a great many objects of the same type, a batch at a time rather than all at once, for as long as it takes
+     * @return  Every object that could be obtained, in the order of their ids
+     */
+    public <T> List<T> getAllInBatches(final Class<T> clazz, final Collection<Integer> ids)
+    {
+        final List<T> results = new ArrayList<>(ids.size());
+        forEachInBatches(clazz, getAccessorFor(dataTypeToAccessor_, clazz), ids, results::add);
+        return results;
+    }
+
+    /**
+     * As {@link #getAllInBatches}, but handing each object over as its batch arrives and caching none of them, so
+     * that something can be built from every object without keeping them all
+     * @param consumer  Accepts every object that could be obtained, in the order of their ids
+     */
+    public <T> void crawl(final Class<T> clazz, final Collection<Integer> ids, final Consumer<? super T> consumer)
+    {
+        forEachInBatches(clazz, getAccessorFor(dataTypeToUncachedAccessor_, clazz), ids, consumer);
+    }
+
+    /**
+     * Be told whenever a cached object is dropped, whether it expired, was replaced or was evicted
+     *
+     * Expiry is noticed lazily, as the cache is used, so a listener may hear about it some time after the fact.
+     * @param listener  Accepts the type and id of the dropped object
+     */
+    public void addEvictionListener(final BiConsumer<Class<?>, Integer> listener)
+    {
+        evictionListeners_.add(listener);
+    }
+
+    /**
+     * Be told whenever an object is fetched into the cache: the first time it's asked for, and the first time after
+     * it was dropped
+     *
+     * Listeners run on the loading thread before the object is handed to whoever asked for it, so they should be quick.
+     * They see the whole object, even where the cache keeps a slimmer copy of it.
+     * @param listener  Accepts the type of the loaded object and the object itself
+     */
+    public void addLoadListener(final BiConsumer<Class<?>, Object> listener)
+    {
+        loadListeners_.add(listener);
+    }
+
     public Set<Class<?>> getSupportedDataTypes()
     {
         return dataTypeToAccessor_.keySet();
     }
 
-    private <T> Function<Integer, T> getAccessorFor(final Class<T> clazz)
+    private <T> Map<Integer, T> getAll(final Class<T> clazz, final BiFunction<Integer, Deadline, T> accessor,
+            final Collection<Integer> ids, final ExecutorService executor, final Deadline deadline)
+    {
+        deadline.check();
+        final Map<Integer, Future<T>> loads = new LinkedHashMap<>(ids.size());
+        for (final int id : ids) {
+            loads.computeIfAbsent(id, key -> executor.submit(() -> {
+                // Not worth starting once nobody is waiting for it
+                deadline.check();
+                return accessor.apply(key, deadline);
+            }));
+        }
+
+        // As for single loads, anything not finished in time is left running to fill the cache
+        final Map<Integer, T> results = new LinkedHashMap<>(loads.size());
+        for (final Map.Entry<Integer, Future<T>> load : loads.entrySet()) {
+            try {
+                results.put(load.getKey(), deadline.await(load.getValue()));
+            } catch (DeadlineExceededException e) {
+                LOG.info("Gave up waiting on {} #{} at its deadline.", clazz.getSimpleName(), load.getKey());
+                throw e;
+            } catch (ExecutionException e) {
+                LOG.debug("Could not get {} #{}.", clazz.getSimpleName(), load.getKey(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private <T> void forEachInBatches(final Class<T> clazz, final BiFunction<Integer, Deadline, T> accessor,
+            final Collection<Integer> ids, final Consumer<? super T> consumer)
+    {
+        for (final List<Integer> batch : Iterables.partition(new ArrayList<>(new TreeSet<>(ids)), CRAWL_BATCH_SIZE)) {
+            final Map<Integer, T> fetched = getAll(clazz, accessor, batch, CRAWLER, Deadline.none());
+            if (fetched.size() < batch.size()) {
+                LOG.warn("Could only get {} of {} #{}.", fetched.size(), clazz.getSimpleName(), batch);
+            }
+            fetched.values().forEach(consumer);
+        }
+    }
+
+    private static <T> BiFunction<Integer, Deadline, T> getAccessorFor(
+            final ImmutableMap<Class<?>, BiFunction<Integer, Deadline, ?>> dataTypeToAccessor, final Class<T> clazz)
     {
         try {
-            final Function<Integer, ?> rawAccessor = dataTypeToAccessor_.get(clazz);
+            final BiFunction<Integer, Deadline, ?> rawAccessor = dataTypeToAccessor.get(clazz);
             Validate.notNull(rawAccessor, "No accessor found for data type %s!", clazz.getSimpleName());
             // I don't know a way to dynamically cast a Function type (suspect because it's 'reified'), so we do it live
             // http://www.codeaffine.com/2015/03/04/map-distinct-value-types-using-java-generics/
-            return (Function<Integer, T>) rawAccessor;
+            return (BiFunction<Integer, Deadline, T>) rawAccessor;
         } catch (Exception e) {
             LOG.error("Encountered exception getting the accessor for data of type {}!", clazz.getSimpleName(), e);
             throw e;
         }
     }
 
-    private static <T> Function<T, ?> wrapAccessorMethod(final Object parent, final Method method)
+    /**
+     * Wrap an accessing method in retries
+     */
+    private static <T> BiFunction<T, Deadline, ?> wrapAccessorMethod(final Object parent, final Method method)
     {
         // Accessing methods via reflection adds some performance cost, but not much
         // http://www.jguru.com/faq/view.jsp?EID=246569
@@ -122,38 +309,31 @@ public class DynamicPokeApi
                         method.getName()), e);
             }
         };
-        return wrapAccessor(accessor);
+        return attachDefaultRetries(accessor, Arrays.asList(IOException.class, RuntimeException.class));
     }
 
     /**
-     * Wrap an accessing function in caching and retries
+     * Decorate a function such that its results are accessed through a {@link Cache}
+     *
+     * A load is run with the deadline of whichever caller started it; callers that join it in progress share its fate.
+     * @param compact   Given each loaded object once it's been passed to onLoad, and gives back what to cache
      */
-    private static <T, R> Function<T, R> wrapAccessor(final Function<T, R> accessor)
+    @SuppressWarnings("unchecked")
+    private static <T, R> BiFunction<T, Deadline, R> attachDefaultCache(final BiFunction<T, Deadline, R> function,
+            final Consumer<T> onEviction, final Consumer<? super R> onLoad, final Function<Object, ?> compact)
     {
-        final Function<T, R> retryingAccessor = attachDefaultRetries(accessor,
-                Arrays.asList(IOException.class, RuntimeException.class));
-        return attachDefaultCache(retryingAccessor);
-    }
-
-    /**
-     * Decorate a function such that its results are accessed through a {@link com.google.common.cache.LoadingCache}
-     */
-    private static <T, R> Function<T, R> attachDefaultCache(final Function<T, R> function)
-    {
-        final LoadingCache<T, R> cache = CacheBuilder.newBuilder()
+        final Cache<T, R> cache = CacheBuilder.newBuilder()
                 .expireAfterAccess(24, TimeUnit.HOURS)
-                .build(new CacheLoader<T, R>()
-                {
-                    @Override
-                    public R load(@NotNull T key) throws Exception
-                    {
-                        return function.apply(key);
-                    }
-                });
+                .removalListener((RemovalNotification<T, R> removal) -> onEviction.accept(removal.getKey()))
+                .build();
 
-        return (T input) -> {
+        return (T input, Deadline deadline) -> {
             try {
-                return cache.get(input);
+                return cache.get(input, () -> {
+                    final R loaded = function.apply(input, deadline);
+                    onLoad.accept(loaded);
+                    return (R) compact.apply(loaded);
+                });
             } catch (ExecutionException e) {
                 throw ThrowableUtils.toUnchecked(e);
             }
@@ -161,22 +341,43 @@ public class DynamicPokeApi
     }
 
     /**
-     * Decorate a function such that its results are accessed through a {@link Retryer}
+     * @return  How to slim down objects of the given type before they're cached
+     */
+    private static Function<Object, ?> compactorFor(final Class<?> dataType)
+    {
+        return dataType == Pokemon.class ? loaded -> withoutMoves((Pokemon) loaded) : Function.identity();
+    }
+
+    /**
+     * A Pokemon's moves are most of its size, and are only read by the indexes its load listeners keep up to date
+     */
+    private static Pokemon withoutMoves(final Pokemon pokemon)
+    {
+        return new Pokemon(pokemon.getId(), pokemon.getName(), pokemon.getBaseExperience(), pokemon.getHeight(),
+                pokemon.isDefault(), pokemon.getOrder(), pokemon.getWeight(), pokemon.getSpecies(),
+                pokemon.getAbilities(), pokemon.getForms(), pokemon.getGameIndices(), pokemon.getHeldItems(),
+                Collections.emptyList(), pokemon.getStats(), pokemon.getTypes(), pokemon.getSprites());
+    }
+
+    /**
+     * Decorate a function such that its results are accessed through a {@link Retryer}, which gives up rather than
+     * wait past the given deadline for another attempt
      */
-    private static <T, R> Function<T, R> attachDefaultRetries(final Function<T, R> function,
+    private static <T, R> BiFunction<T, Deadline, R> attachDefaultRetries(final Function<T, R> function,
             final List<Class<? extends Throwable>> retryableExceptionTypes)
     {
-        final RetryerBuilder<R> retryerBuilder = RetryerBuilder.<R>newBuilder()
-                .withWaitStrategy(WaitStrategies.exponentialWait(10, TimeUnit.SECONDS))
-                .withStopStrategy(StopStrategies.stopAfterDelay(60, TimeUnit.SECONDS));
-        // Mark the provided exception types as eligible for retries
-        retryableExceptionTypes.forEach(retryerBuilder::retryIfExceptionOfType);
-        final Retryer<R> retryer = retryerBuilder.build();
+        final WaitStrategy wait = WaitStrategies.exponentialWait(10, TimeUnit.SECONDS);
+        final StopStrategy stop = StopStrategies.stopAfterDelay(60, TimeUnit.SECONDS);
 
-        return (T input) -> {
+        return (T input, Deadline deadline) -> {
+            final RetryerBuilder<R> retryerBuilder = RetryerBuilder.<R>newBuilder()
+                    .withWaitStrategy(wait)
+                    .withStopStrategy((Attempt attempt) -> stop.shouldStop(attempt)
+                            || deadline.remaining(TimeUnit.MILLISECONDS) <= wait.computeSleepTime(attempt));
+            // Mark the provided exception types as eligible for retries
+            retryableExceptionTypes.forEach(retryerBuilder::retryIfExceptionOfType);
             try {
-                // Use a raw Retryer to allow reuse of the same Retryer
-                return retryer.call(() -> function.apply(input));
+                return retryerBuilder.build().call(() -> function.apply(input));
             } catch (ExecutionException | RetryException e) {
                 throw ThrowableUtils.toUnchecked(e);
             }
@@ -0,0 +1,144 @@
+package dex.pokemon;
+
+import me.sargunvohra.lib.pokekotlin.model.ApiResource;
+import me.sargunvohra.lib.pokekotlin.model.ApiResourceList;
+import me.sargunvohra.lib.pokekotlin.model.ChainLink;
+import me.sargunvohra.lib.pokekotlin.model.EvolutionChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Which species evolves from and into which, by species ID, built from evolution chains
+ *
+ * Parents are a flat array indexed by species ID, and children are packed into one array with each species' children
+ * starting at an offset, so that looking either way is an array lookup.
+ */
+public class EvolutionGraph
+{
+    private static final Logger LOG = LoggerFactory.getLogger(EvolutionGraph.class);
+
+    // Species IDs start at 1, so 0 never names a species
+    private static final int NO_SPECIES = 0;
+
+    // parents_[species] is the species it evolves from, or NO_SPECIES
+    private final int[] parents_;
+    // The species evolving from a species are at children_[childOffsets_[species]] up to, not including,
+    // children_[childOffsets_[species + 1]]
+    private final int[] childOffsets_;
+    private final int[] children_;
+    // Species names, by ID, as named in the chains
+    private final String[] names_;
+
+    private EvolutionGraph(final int[] parents, final int[] childOffsets, final int[] children, final String[] names)
+    {
+        parents_ = parents;
+        childOffsets_ = childOffsets;
+        children_ = children;
+        names_ = names;
+    }
+
+    /**
+     * Fetch every evolution chain and link up their species
+     * @param chainLister   Batched producer of the evolution chain resources
+     */
+    public static EvolutionGraph build(final DynamicPokeApi client,
+            final BiFunction<Integer, Integer, ApiResourceList> chainLister)
+    {
+        // Ask for one to find out how many there are, then for all of them
+        final int count = chainLister.apply(0, 1).getCount();
+        final List<Integer> chainIds = chainLister.apply(0, count).getResults().stream()
+                .map(ApiResource::getId)
+                .collect(Collectors.toList());
+
+        // Any chain that can't be fetched is left out, as if its species never evolve
+        final EvolutionGraph graph = fromChains(client.getAllInBatches(EvolutionChain.class, chainIds));
+        LOG.info("Linked up the evolutions of {} evolution chains.", chainIds.size());
+        return graph;
+    }
+
+    public static EvolutionGraph fromChains(final Collection<EvolutionChain> chains)
+    {
+        final List<ChainLink> links = new ArrayList<>();
+        chains.forEach(chain -> collectLinks(chain.getChain(), links));
+        final int maximumId = links.stream()
+                .mapToInt(link -> link.getSpecies().getId())
+                .max()
+                .orElse(NO_SPECIES);
+
+        final int[] parents = new int[maximumId + 1];
+        final String[] names = new String[maximumId + 1];
+        final int[] childCounts = new int[maximumId + 1];
+        for (final ChainLink link : links) {
+            final int id = link.getSpecies().getId();
+            names[id] = link.getSpecies().getName();
+            childCounts[id] = link.getEvolvesTo().size();
+            link.getEvolvesTo().forEach(child -> parents[child.getSpecies().getId()] = id);
+        }
+
+        final int[] childOffsets = new int[maximumId + 2];
+        for (int id = 0; id <= maximumId; id++) {
+            childOffsets[id + 1] = childOffsets[id] + childCounts[id];
+        }
+        final int[] children = new int[childOffsets[maximumId + 1]];
+        for (final ChainLink link : links) {
+            int offset = childOffsets[link.getSpecies().getId()];
+            for (final ChainLink child : link.getEvolvesTo()) {
+                children[offset++] = child.getSpecies().getId();
+            }
+        }
+
+        return new EvolutionGraph(parents, childOffsets, children, names);
+    }
+
+    /**
+     * @return  Whether the species appeared in any of the chains the graph was built from
+     */
+    public boolean contains(final int speciesId)
+    {
+        return speciesId > NO_SPECIES && speciesId < names_.length && names_[speciesId] != null;
+    }
+
+    /**
+     * @return  ID of the species this one evolves from, if any
+     */
+    public Optional<Integer> getPriorEvolution(final int speciesId)
+    {
+        if (!contains(speciesId) || parents_[speciesId] == NO_SPECIES) {
+            return Optional.empty();
+        }
+        return Optional.of(parents_[speciesId]);
+    }
+
+    /**
+     * @return  IDs of the species this one evolves into
+     */
+    public int[] getFutureEvolutions(final int speciesId)
+    {
+        if (!contains(speciesId)) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(children_, childOffsets_[speciesId], childOffsets_[speciesId + 1]);
+    }
+
+    /**
+     * @return  The species' name, as the PokeAPI has it, if it's in the graph
+     */
+    public Optional<String> getName(final int speciesId)
+    {
+        return contains(speciesId) ? Optional.of(names_[speciesId]) : Optional.empty();
+    }
+
+    private static void collectLinks(final ChainLink link, final List<ChainLink> links)
+    {
+        links.add(link);
+        link.getEvolvesTo().forEach(child -> collectLinks(child, links));
+    }
+}
@@ -0,0 +1,93 @@
+package dex.pokemon;
+
+import dex.util.PrintingUtils;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Which species can have each ability and which learn each move, by ID, derived from every species' default Pokemon
+ *
+ * Built once as part of the {@link PokemonIndexes}, then kept up to date a species at a time: whenever one of them
+ * is loaded into the cache again, it's refiled from the fresh copy.
+ */
+public class HolderIndex
+{
+    // Species IDs by ability ID
+    private final InvertedIndex abilities_;
+    // Species IDs by move ID
+    private final InvertedIndex moves_;
+    // Species names, by ID
+    private final Map<Integer, String> names_ = new ConcurrentHashMap<>();
+
+    /**
+     * @param abilities     {@link #abilityIds Ability IDs} of each species, by species ID
+     * @param moves         {@link #moveIds Move IDs} of each species, by species ID
+     * @param names         Names of the species, by ID
+     */
+    HolderIndex(final Map<Integer, int[]> abilities, final Map<Integer, int[]> moves, final Map<Integer, String> names)
+    {
+        abilities_ = new InvertedIndex(abilities);
+        moves_ = new InvertedIndex(moves);
+        names_.putAll(names);
+    }
+
+    /**
+     * Refile a Pokemon under its current abilities and moves; any that isn't the default of an indexed species, such
+     * as an alternate form, is ignored
+     */
+    public void update(final Pokemon pokemon)
+    {
+        if (!names_.containsKey(pokemon.getId())) {
+            return;
+        }
+        abilities_.put(pokemon.getId(), abilityIds(pokemon));
+        moves_.put(pokemon.getId(), moveIds(pokemon));
+        names_.put(pokemon.getId(), PrintingUtils.properNoun(pokemon.getName()));
+    }
+
+    /**
+     * @return  IDs of the species that can have the ability, ascending; don't modify them
+     */
+    public int[] getHolders(final int abilityId)
+    {
+        return abilities_.get(abilityId);
+    }
+
+    /**
+     * @return  IDs of the species that can learn the move, ascending; don't modify them
+     */
+    public int[] getLearners(final int moveId)
+    {
+        return moves_.get(moveId);
+    }
+
+    /**
+     * @return  Names of the species, in the same order, leaving out any not in the index
+     */
+    public List<String> getNames(final int[] speciesIds)
+    {
+        return IntStream.of(speciesIds)
+                .mapToObj(names_::get)
+                .filter(name -> name != null)
+                .collect(Collectors.toList());
+    }
+
+    static int[] abilityIds(final Pokemon pokemon)
+    {
+        return pokemon.getAbilities().stream()
+                .mapToInt(ability -> ability.getAbility().getId())
+                .toArray();
+    }
+
+    static int[] moveIds(final Pokemon pokemon)
+    {
+        return pokemon.getMoves().stream()
+                .mapToInt(move -> move.getMove().getId())
+                .toArray();
+    }
+}
@@ -0,0 +1,110 @@
+package dex.pokemon;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The values filed under each key, as a sorted int array per key, where keys and values are both IDs
+ *
+ * The keys each value is filed under are kept too, so that refiling one value only touches the arrays of the keys it
+ * moved between.  Arrays are replaced rather than modified, so one handed out never changes underneath its reader.
+ */
+class InvertedIndex
+{
+    private static final int[] NONE = new int[0];
+
+    // Values filed under each key, ascending, indexed by key; null if there are none
+    private int[][] postings_;
+    // Keys each value is filed under, ascending, by value
+    private final Map<Integer, int[]> keys_;
+
+    /**
+     * File every value under its keys at once
+     * @param keysByValue   Keys of each value, by value
+     */
+    InvertedIndex(final Map<Integer, int[]> keysByValue)
+    {
+        keys_ = new HashMap<>(keysByValue.size());
+        keysByValue.forEach((value, keys) -> keys_.put(value, normalize(keys)));
+
+        // Size every array exactly, then fill them in ascending order of value so they come out sorted
+        final int maximumKey = keys_.values().stream()
+                .flatMapToInt(IntStream::of)
+                .max()
+                .orElse(-1);
+        final int[] counts = new int[maximumKey + 1];
+        keys_.values().forEach(keys -> IntStream.of(keys).forEach(key -> counts[key]++));
+        postings_ = new int[maximumKey + 1][];
+        for (int key = 0; key <= maximumKey; key++) {
+            postings_[key] = counts[key] == 0 ? null : new int[counts[key]];
+        }
+        final int[] filled = new int[maximumKey + 1];
+        keys_.keySet().stream()
+                .sorted()
+                .forEach(value -> IntStream.of(keys_.get(value))
+                        .forEach(key -> postings_[key][filled[key]++] = value));
+    }
+
+    /**
+     * File a value under exactly the given keys, taking it out from under any others it was filed under
+     */
+    synchronized void put(final int value, final int[] keys)
+    {
+        final int[] newKeys = normalize(keys);
+        final int[] oldKeys = keys_.getOrDefault(value, NONE);
+        for (final int key : oldKeys) {
+            if (Arrays.binarySearch(newKeys, key) < 0) {
+                postings_[key] = without(postings_[key], value);
+            }
+        }
+        for (final int key : newKeys) {
+            if (Arrays.binarySearch(oldKeys, key) < 0) {
+                if (key >= postings_.length) {
+                    postings_ = Arrays.copyOf(postings_, key + 1);
+                }
+                postings_[key] = with(postings_[key], value);
+            }
+        }
+        keys_.put(value, newKeys);
+    }
+
+    /**
+     * @return  Values filed under the key, ascending; don't modify them
+     */
+    synchronized int[] get(final int key)
+    {
+        return key >= 0 && key < postings_.length && postings_[key] != null ? postings_[key] : NONE;
+    }
+
+    private static int[] normalize(final int[] keys)
+    {
+        return IntStream.of(keys).distinct().sorted().toArray();
+    }
+
+    private static int[] with(final int[] values, final int value)
+    {
+        if (values == null) {
+            return new int[]{value};
+        }
+        final int insertion = -Arrays.binarySearch(values, value) - 1;
+        final int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertion);
+        result[insertion] = value;
+        System.arraycopy(values, insertion, result, insertion + 1, values.length - insertion);
+        return result;
+    }
+
+    private static int[] without(final int[] values, final int value)
+    {
+        if (values.length == 1) {
+            return null;
+        }
+        final int removal = Arrays.binarySearch(values, value);
+        final int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, removal);
+        System.arraycopy(values, removal + 1, result, removal, values.length - removal - 1);
+        return result;
+    }
+}
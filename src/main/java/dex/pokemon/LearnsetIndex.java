@@ -0,0 +1,162 @@
+package dex.pokemon;
+
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+import me.sargunvohra.lib.pokekotlin.model.PokemonMove;
+import me.sargunvohra.lib.pokekotlin.model.PokemonMoveVersion;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How every species' default Pokemon learns each of its moves, in each version group, packed into primitive tuples
+ *
+ * Each way a Pokemon learns a move is one long holding the move, version group, learn method and level, and each
+ * species' tuples are a single sorted array.  Sorting by move first puts every way of learning a move side by side,
+ * so answering "how does this learn that" is a binary search into one small array.
+ *
+ * Built once as part of the {@link PokemonIndexes}, then kept up to date a species at a time: whenever one of them is
+ * loaded into the cache again, its learnset is packed afresh.
+ */
+public class LearnsetIndex
+{
+    // Bit layout of a tuple, lowest bits first: level, learn method, version group, move
+    private static final int LEVEL_BITS = 16;
+    private static final int METHOD_BITS = 8;
+    private static final int VERSION_GROUP_BITS = 16;
+    private static final int MOVE_BITS = 23;
+    private static final int METHOD_SHIFT = LEVEL_BITS;
+    private static final int VERSION_GROUP_SHIFT = METHOD_SHIFT + METHOD_BITS;
+    private static final int MOVE_SHIFT = VERSION_GROUP_SHIFT + VERSION_GROUP_BITS;
+
+    private static final long[] NONE = new long[0];
+
+    // Tuples of each species, ascending, by species ID; arrays are replaced rather than modified
+    private final Map<Integer, long[]> learnsets_ = new ConcurrentHashMap<>();
+    // Names of the version groups and learn methods in the tuples, by ID
+    private final Map<Integer, String> versionGroupNames_ = new ConcurrentHashMap<>();
+    private final Map<Integer, String> methodNames_ = new ConcurrentHashMap<>();
+
+    /**
+     * @param learnsets     {@link #pack Packed} tuples of each species, in any order, by species ID
+     */
+    LearnsetIndex(final Map<Integer, long[]> learnsets, final Map<Integer, String> versionGroupNames,
+            final Map<Integer, String> methodNames)
+    {
+        learnsets.forEach((species, tuples) -> learnsets_.put(species, sorted(tuples)));
+        versionGroupNames_.putAll(versionGroupNames);
+        methodNames_.putAll(methodNames);
+    }
+
+    /**
+     * Pack a Pokemon's learnset again; any that isn't the default of an indexed species, such as an alternate form, is
+     * ignored
+     */
+    public void update(final Pokemon pokemon)
+    {
+        if (!contains(pokemon.getId())) {
+            return;
+        }
+        learnsets_.put(pokemon.getId(), sorted(tuples(pokemon, versionGroupNames_, methodNames_)));
+    }
+
+    /**
+     * {@link #pack Pack} every way a Pokemon learns its moves, noting the names of the version groups and learn methods
+     * @return  The tuples, in no particular order
+     */
+    static long[] tuples(final Pokemon pokemon, final Map<Integer, String> versionGroupNames,
+            final Map<Integer, String> methodNames)
+    {
+        final long[] tuples = new long[pokemon.getMoves().stream()
+                .mapToInt(move -> move.getVersionGroupDetails().size())
+                .sum()];
+        int tuple = 0;
+        for (final PokemonMove move : pokemon.getMoves()) {
+            for (final PokemonMoveVersion version : move.getVersionGroupDetails()) {
+                tuples[tuple++] = pack(move.getMove().getId(), version.getVersionGroup().getId(),
+                        version.getMoveLearnMethod().getId(), version.getLevelLearnedAt());
+                versionGroupNames.putIfAbsent(version.getVersionGroup().getId(), version.getVersionGroup().getName());
+                methodNames.putIfAbsent(version.getMoveLearnMethod().getId(), version.getMoveLearnMethod().getName());
+            }
+        }
+        return tuples;
+    }
+
+    public boolean contains(final int speciesId)
+    {
+        return learnsets_.containsKey(speciesId);
+    }
+
+    /**
+     * @return  Every way the species learns the move, as tuples in order of version group then learn method; read
+     *          them with {@link #versionGroupOf}, {@link #methodOf} and {@link #levelOf}
+     */
+    public long[] getLearnings(final int speciesId, final int moveId)
+    {
+        final long[] tuples = learnsets_.getOrDefault(speciesId, NONE);
+        // The first tuple of the move is where one with the lowest possible version group, method and level would go
+        final int searched = Arrays.binarySearch(tuples, pack(moveId, 0, 0, 0));
+        final int first = searched >= 0 ? searched : -searched - 1;
+        int last = first;
+        while (last < tuples.length && moveOf(tuples[last]) == moveId) {
+            last++;
+        }
+        return Arrays.copyOfRange(tuples, first, last);
+    }
+
+    public Optional<String> getVersionGroupName(final long tuple)
+    {
+        return Optional.ofNullable(versionGroupNames_.get(versionGroupOf(tuple)));
+    }
+
+    public Optional<String> getMethodName(final long tuple)
+    {
+        return Optional.ofNullable(methodNames_.get(methodOf(tuple)));
+    }
+
+    static long pack(final int moveId, final int versionGroupId, final int methodId, final int level)
+    {
+        Validate.isTrue(moveId >= 0 && moveId < 1 << MOVE_BITS, "Move #%d doesn't fit in a tuple!", moveId);
+        Validate.isTrue(versionGroupId >= 0 && versionGroupId < 1 << VERSION_GROUP_BITS,
+                "Version group #%d doesn't fit in a tuple!", versionGroupId);
+        Validate.isTrue(methodId >= 0 && methodId < 1 << METHOD_BITS,
+                "Learn method #%d doesn't fit in a tuple!", methodId);
+        Validate.isTrue(level >= 0 && level < 1 << LEVEL_BITS, "Level %d doesn't fit in a tuple!", level);
+        return (long) moveId << MOVE_SHIFT
+                | (long) versionGroupId << VERSION_GROUP_SHIFT
+                | (long) methodId << METHOD_SHIFT
+                | level;
+    }
+
+    public static int moveOf(final long tuple)
+    {
+        return (int) (tuple >>> MOVE_SHIFT);
+    }
+
+    public static int versionGroupOf(final long tuple)
+    {
+        return (int) (tuple >>> VERSION_GROUP_SHIFT) & ((1 << VERSION_GROUP_BITS) - 1);
+    }
+
+    public static int methodOf(final long tuple)
+    {
+        return (int) (tuple >>> METHOD_SHIFT) & ((1 << METHOD_BITS) - 1);
+    }
+
+    /**
+     * @return  Level the move is learned at, or 0 if it isn't learned by leveling up
+     */
+    public static int levelOf(final long tuple)
+    {
+        return (int) tuple & ((1 << LEVEL_BITS) - 1);
+    }
+
+    private static long[] sorted(final long[] tuples)
+    {
+        final long[] sorted = tuples.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
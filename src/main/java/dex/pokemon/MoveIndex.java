@@ -0,0 +1,265 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import dex.util.ParsingUtils;
+import dex.util.PrintingUtils;
+import me.sargunvohra.lib.pokekotlin.model.Move;
+import me.sargunvohra.lib.pokekotlin.model.Name;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Every move's numbers, loaded once and laid out column by column so that a search is a scan over a few int arrays
+ *
+ * Each move is a row, referred to by its index; types and damage classes are stored as indices into small
+ * dictionaries.
+ */
+public class MoveIndex
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MoveIndex.class);
+
+    // Stands in for a number a move doesn't have, such as the power of a status move
+    public static final int NONE = -1;
+
+    /**
+     * The numbers a move can be searched and ranked by
+     */
+    public enum Column
+    {
+        power,
+        accuracy,
+        pp
+    }
+
+    private final String[] names_;
+    // Indexed by Column ordinal, then row
+    private final int[][] columns_;
+    private final int[] types_;
+    private final int[] damageClasses_;
+    private final ImmutableList<String> typeNames_;
+    private final ImmutableList<String> damageClassNames_;
+
+    /**
+     * @param columns   Numbers of every row, by {@link Column} ordinal
+     * @param types     Index of each row's type in {@code typeNames}, and likewise for damage classes
+     */
+    MoveIndex(final String[] names, final int[][] columns, final int[] types, final int[] damageClasses,
+            final ImmutableList<String> typeNames, final ImmutableList<String> damageClassNames)
+    {
+        names_ = names;
+        columns_ = columns;
+        types_ = types;
+        damageClasses_ = damageClasses;
+        typeNames_ = typeNames;
+        damageClassNames_ = damageClassNames;
+    }
+
+    /**
+     * Fetch every move and lay out its numbers
+     */
+    public static MoveIndex build(final DynamicPokeApi client, final NameCache moveIds)
+    {
+        // Any move that can't be fetched is left out of the index
+        final List<Move> moves = client.getAllInBatches(Move.class, moveIds.getAllIds());
+        final MoveIndex index = of(moves);
+        LOG.info("Indexed {} moves.", index.size());
+        return index;
+    }
+
+    private static MoveIndex of(final List<Move> moves)
+    {
+        final TreeSet<String> typeNames = new TreeSet<>();
+        final TreeSet<String> damageClassNames = new TreeSet<>();
+        moves.forEach(move -> {
+            typeNames.add(move.getType().getName());
+            damageClassNames.add(move.getDamageClass().getName());
+        });
+        final ImmutableList<String> typeDictionary = ImmutableList.copyOf(typeNames);
+        final ImmutableList<String> damageClassDictionary = ImmutableList.copyOf(damageClassNames);
+
+        final int size = moves.size();
+        final String[] names = new String[size];
+        final int[][] columns = new int[Column.values().length][size];
+        final int[] types = new int[size];
+        final int[] damageClasses = new int[size];
+        for (int row = 0; row < size; row++) {
+            final Move move = moves.get(row);
+            names[row] = displayName(move);
+            columns[Column.power.ordinal()][row] = valueOf(move.getPower());
+            columns[Column.accuracy.ordinal()][row] = valueOf(move.getAccuracy());
+            columns[Column.pp.ordinal()][row] = valueOf(move.getPp());
+            types[row] = typeDictionary.indexOf(move.getType().getName());
+            damageClasses[row] = damageClassDictionary.indexOf(move.getDamageClass().getName());
+        }
+
+        return new MoveIndex(names, columns, types, damageClasses, typeDictionary, damageClassDictionary);
+    }
+
+    public int size()
+    {
+        return names_.length;
+    }
+
+    public Optional<Integer> typeIndex(final String type)
+    {
+        final int index = typeNames_.indexOf(ParsingUtils.comparisonFormat(type));
+        return index >= 0 ? Optional.of(index) : Optional.empty();
+    }
+
+    public Optional<Integer> damageClassIndex(final String damageClass)
+    {
+        final int index = damageClassNames_.indexOf(ParsingUtils.comparisonFormat(damageClass));
+        return index >= 0 ? Optional.of(index) : Optional.empty();
+    }
+
+    /**
+     * @return  Rows of up to {@code limit} moves passing the filter, highest in the ranking column first
+     */
+    public int[] search(final Filter filter, final Column rankBy, final int limit)
+    {
+        Validate.isTrue(limit > 0, "Must ask for at least one move!");
+        final int[] ranking = columns_[rankBy.ordinal()];
+        // Lowest-ranked of the best moves so far on top, so it's the one pushed out by a better match
+        final PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (first, second) ->
+                ranking[first] != ranking[second]
+                        ? Integer.compare(ranking[first], ranking[second])
+                        : Integer.compare(second, first));
+        for (int row = 0; row < names_.length; row++) {
+            if (filter.accepts(this, row)) {
+                best.add(row);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        final int[] rows = new int[best.size()];
+        for (int i = rows.length - 1; i >= 0; i--) {
+            rows[i] = best.poll();
+        }
+        return rows;
+    }
+
+    /**
+     * @return  How many moves pass the filter
+     */
+    public int count(final Filter filter)
+    {
+        int count = 0;
+        for (int row = 0; row < names_.length; row++) {
+            if (filter.accepts(this, row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public String getName(final int row)
+    {
+        return names_[row];
+    }
+
+    /**
+     * @return  The move's number in a column, or {@link #NONE} if it has none
+     */
+    public int get(final Column column, final int row)
+    {
+        return columns_[column.ordinal()][row];
+    }
+
+    public String getType(final int row)
+    {
+        return typeNames_.get(types_[row]);
+    }
+
+    public String getDamageClass(final int row)
+    {
+        return damageClassNames_.get(damageClasses_[row]);
+    }
+
+    /**
+     * Bounds on the moves to search for; anything left unset matches every move
+     */
+    public static class Filter
+    {
+        private static final int ANY = -1;
+
+        private final int[] minimums_ = new int[Column.values().length];
+        private final int[] maximums_ = new int[Column.values().length];
+        private final boolean[] bounded_ = new boolean[Column.values().length];
+        private int type_ = ANY;
+        private int damageClass_ = ANY;
+
+        public Filter()
+        {
+            Arrays.fill(minimums_, Integer.MIN_VALUE);
+            Arrays.fill(maximums_, Integer.MAX_VALUE);
+        }
+
+        public Filter atLeast(final Column column, final int minimum)
+        {
+            minimums_[column.ordinal()] = Math.max(minimums_[column.ordinal()], minimum);
+            bounded_[column.ordinal()] = true;
+            return this;
+        }
+
+        public Filter atMost(final Column column, final int maximum)
+        {
+            maximums_[column.ordinal()] = Math.min(maximums_[column.ordinal()], maximum);
+            bounded_[column.ordinal()] = true;
+            return this;
+        }
+
+        public Filter ofType(final int type)
+        {
+            type_ = type;
+            return this;
+        }
+
+        public Filter ofDamageClass(final int damageClass)
+        {
+            damageClass_ = damageClass;
+            return this;
+        }
+
+        private boolean accepts(final MoveIndex index, final int row)
+        {
+            if ((type_ != ANY && index.types_[row] != type_)
+                    || (damageClass_ != ANY && index.damageClasses_[row] != damageClass_)) {
+                return false;
+            }
+            for (int column = 0; column < bounded_.length; column++) {
+                if (!bounded_[column]) {
+                    continue;
+                }
+                // A move without the number never passes a bound on it
+                final int value = index.columns_[column][row];
+                if (value == NONE || value < minimums_[column] || value > maximums_[column]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int valueOf(final Integer value)
+    {
+        return value == null ? NONE : value;
+    }
+
+    private static String displayName(final Move move)
+    {
+        return move.getNames().stream()
+                .filter(name -> ParsingUtils.isEnglish(name.getLanguage()))
+                .map(Name::getName)
+                .findFirst()
+                .orElse(PrintingUtils.properNoun(move.getName()));
+    }
+}
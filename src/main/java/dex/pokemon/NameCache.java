@@ -71,6 +71,11 @@ public class NameCache
         return idMap_.keySet();
     }
 
+    public ImmutableSet<Integer> getAllIds()
+    {
+        return ImmutableSet.copyOf(idMap_.values());
+    }
+
     private static <T, U> BiFunction<T, U, NamedApiResourceList> attachRetries(final BiFunction<T, U, NamedApiResourceList> namedResourceFunction)
     {
         return (T t, U u) -> {
@@ -0,0 +1,166 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dex.util.Deadline;
+import dex.util.ParsingUtils;
+import me.sargunvohra.lib.pokekotlin.model.NamedApiResource;
+import me.sargunvohra.lib.pokekotlin.model.Nature;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Which stat every nature raises and lowers, loaded once since natures never change
+ *
+ * Stats are referred to by their index in {@link #STATS}, so that both "what does this nature do" and "which nature
+ * does this" are single lookups.
+ */
+public class NatureTable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(NatureTable.class);
+
+    // The stats a nature can affect, as the PokeAPI names them
+    public static final ImmutableList<String> STATS = ImmutableList.of(
+            "attack", "defense", "special-attack", "special-defense", "speed");
+    // Short names people use for the stats, besides the PokeAPI names themselves; StatIndex understands them too
+    private static final ImmutableMap<String, Integer> STAT_ALIASES = ImmutableMap.<String, Integer>builder()
+            .put("atk", 0)
+            .put("def", 1)
+            .put("spa", 2)
+            .put("spatk", 2)
+            .put("sp.atk", 2)
+            .put("spd", 3)
+            .put("spdef", 3)
+            .put("sp.def", 3)
+            .put("spe", 4)
+            .put("speed", 4)
+            .build();
+    private static final int NO_STAT = -1;
+
+    // Raised and lowered stat of each nature, by name; neutral natures raise and lower the same stat, or NO_STAT
+    private final ImmutableMap<String, int[]> effects_;
+    // Name of the nature with each effect, at [raised * STATS.size() + lowered], or null if there's none
+    private final String[] byEffect_;
+    private final ImmutableList<String> neutralNatures_;
+
+    private NatureTable(final ImmutableMap<String, int[]> effects)
+    {
+        effects_ = effects;
+        byEffect_ = new String[STATS.size() * STATS.size()];
+        final ImmutableList.Builder<String> neutralNatures = ImmutableList.builder();
+        effects.forEach((name, effect) -> {
+            if (effect[0] == NO_STAT || effect[1] == NO_STAT) {
+                neutralNatures.add(name);
+                return;
+            }
+            if (effect[0] == effect[1]) {
+                neutralNatures.add(name);
+            }
+            byEffect_[effect[0] * STATS.size() + effect[1]] = name;
+        });
+        neutralNatures_ = neutralNatures.build();
+    }
+
+    /**
+     * Fetch every nature at once and tabulate their effects
+     */
+    public static NatureTable build(final DynamicPokeApi client, final NameCache natureIds)
+    {
+        final Map<Integer, Nature> natures = client.getAll(Nature.class, natureIds.getAllIds(), Deadline.none());
+        Validate.isTrue(natures.size() == natureIds.getAllIds().size(), "Could only get %d of %d natures!",
+                natures.size(), natureIds.getAllIds().size());
+
+        final ImmutableMap.Builder<String, int[]> effects = ImmutableMap.builder();
+        natures.values().stream()
+                .sorted((first, second) -> Integer.compare(first.getId(), second.getId()))
+                .forEach(nature -> effects.put(ParsingUtils.comparisonFormat(nature.getName()), new int[]{
+                        indexOf(nature.getIncreasedStat()), indexOf(nature.getDecreasedStat())}));
+
+        final NatureTable table = new NatureTable(effects.build());
+        LOG.info("Tabulated the effects of {} natures.", table.getNames().size());
+        return table;
+    }
+
+    /**
+     * As {@link #build}, for natures already known by name: raised then lowered stat, or nulls for a neutral nature
+     */
+    static NatureTable of(final Map<String, String[]> natures)
+    {
+        final ImmutableMap.Builder<String, int[]> effects = ImmutableMap.builder();
+        natures.forEach((name, stats) -> effects.put(ParsingUtils.comparisonFormat(name), new int[]{
+                stats[0] == null ? NO_STAT : STATS.indexOf(stats[0]),
+                stats[1] == null ? NO_STAT : STATS.indexOf(stats[1])}));
+        return new NatureTable(effects.build());
+    }
+
+    public ImmutableList<String> getNames()
+    {
+        return effects_.keySet().asList();
+    }
+
+    public boolean contains(final String nature)
+    {
+        return effects_.containsKey(ParsingUtils.comparisonFormat(nature));
+    }
+
+    /**
+     * @return  Index of the stat the nature raises, if it's a known nature that isn't neutral
+     */
+    public Optional<Integer> getRaisedStat(final String nature)
+    {
+        return effectOf(nature, 0);
+    }
+
+    /**
+     * @return  Index of the stat the nature lowers, if it's a known nature that isn't neutral
+     */
+    public Optional<Integer> getLoweredStat(final String nature)
+    {
+        return effectOf(nature, 1);
+    }
+
+    /**
+     * @return  The nature that raises one stat and lowers another; for the same stat, the neutral nature nominally
+     *          doing so, if the data says which one that is
+     */
+    public Optional<String> getNature(final int raisedStat, final int loweredStat)
+    {
+        return Optional.ofNullable(byEffect_[raisedStat * STATS.size() + loweredStat]);
+    }
+
+    /**
+     * @return  Natures that have no effect on stats
+     */
+    public ImmutableList<String> getNeutralNatures()
+    {
+        return neutralNatures_;
+    }
+
+    /**
+     * @return  Index in {@link #STATS} of a stat, given its PokeAPI name or a common short name
+     */
+    public static Optional<Integer> statIndex(final String stat)
+    {
+        final String name = ParsingUtils.comparisonFormat(stat);
+        final int index = STATS.indexOf(name);
+        return index != NO_STAT ? Optional.of(index) : Optional.ofNullable(STAT_ALIASES.get(name));
+    }
+
+    private Optional<Integer> effectOf(final String nature, final int effect)
+    {
+        final int[] effects = effects_.get(ParsingUtils.comparisonFormat(nature));
+        if (effects == null || effects[0] == NO_STAT || effects[1] == NO_STAT || effects[0] == effects[1]) {
+            return Optional.empty();
+        }
+        return Optional.of(effects[effect]);
+    }
+
+    private static int indexOf(final NamedApiResource stat)
+    {
+        return stat == null ? NO_STAT : STATS.indexOf(stat.getName());
+    }
+}
@@ -0,0 +1,66 @@
+package dex.pokemon;
+
+import com.google.common.io.ByteStreams;
+import dex.util.ByteBufferInputStream;
+import dex.util.ThrowableUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * Official artwork for each species, as PNGs, by species ID
+ */
+public class OfficialArtwork
+{
+    private static final String ARTWORK_NAME_FORMAT = "official-artwork/%d.png";
+
+    private final IntFunction<Optional<ByteBuffer>> lookup_;
+
+    private OfficialArtwork(final IntFunction<Optional<ByteBuffer>> lookup)
+    {
+        lookup_ = lookup;
+    }
+
+    /**
+     * Read artwork from a packed {@link ArtworkArchive}
+     */
+    public static OfficialArtwork fromArchive(final Path archive) throws IOException
+    {
+        return new OfficialArtwork(ArtworkArchive.open(archive)::get);
+    }
+
+    /**
+     * Read artwork from resources bundled with the bot, which means a classpath lookup for every piece
+     */
+    public static OfficialArtwork fromResources()
+    {
+        return new OfficialArtwork(OfficialArtwork::readResource);
+    }
+
+    /**
+     * @return  The species' artwork, if there is any
+     */
+    public Optional<ByteBuffer> get(final int speciesId)
+    {
+        return lookup_.apply(speciesId);
+    }
+
+    public Optional<InputStream> open(final int speciesId)
+    {
+        return get(speciesId).map(ByteBufferInputStream::new);
+    }
+
+    private static Optional<ByteBuffer> readResource(final int speciesId)
+    {
+        final String artName = String.format(ARTWORK_NAME_FORMAT, speciesId);
+        try (final InputStream art = ClassLoader.getSystemClassLoader().getResourceAsStream(artName)) {
+            return art == null ? Optional.empty() : Optional.of(ByteBuffer.wrap(ByteStreams.toByteArray(art)));
+        } catch (IOException e) {
+            throw ThrowableUtils.toUnchecked(String.format("Could not read artwork %s!", artName), e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dex.pokemon;
+
+import dex.util.PrintingUtils;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The indexes derived from every species' default Pokemon, built together from one crawl of them
+ *
+ * The Pokemon are fetched around the cache and dropped as soon as they're indexed, so building the indexes doesn't
+ * leave every Pokemon, move list and all, in memory.  Only what the indexes pack out of them is kept.
+ */
+public class PokemonIndexes
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PokemonIndexes.class);
+
+    private final StatIndex stats_;
+    private final HolderIndex holders_;
+    private final LearnsetIndex learnsets_;
+
+    private PokemonIndexes(final StatIndex stats, final HolderIndex holders, final LearnsetIndex learnsets)
+    {
+        stats_ = stats;
+        holders_ = holders;
+        learnsets_ = learnsets;
+    }
+
+    /**
+     * Crawl every species' default Pokemon once, feeding each into every index
+     */
+    public static PokemonIndexes build(final DynamicPokeApi client, final NameCache speciesIds)
+    {
+        final List<String> names = new ArrayList<>();
+        final List<int[]> stats = new ArrayList<>();
+        final List<List<String>> types = new ArrayList<>();
+        final Map<Integer, int[]> abilities = new HashMap<>();
+        final Map<Integer, int[]> moves = new HashMap<>();
+        final Map<Integer, String> namesById = new HashMap<>();
+        final Map<Integer, long[]> learnsets = new HashMap<>();
+        final Map<Integer, String> versionGroupNames = new HashMap<>();
+        final Map<Integer, String> methodNames = new HashMap<>();
+
+        // The default Pokemon of a species shares its ID; any that can't be fetched are left out of the indexes
+        client.crawl(Pokemon.class, speciesIds.getAllIds(), pokemon -> {
+            final String name = PrintingUtils.properNoun(pokemon.getName());
+            names.add(name);
+            stats.add(StatIndex.baseStats(pokemon));
+            types.add(StatIndex.typeNames(pokemon));
+            abilities.put(pokemon.getId(), HolderIndex.abilityIds(pokemon));
+            moves.put(pokemon.getId(), HolderIndex.moveIds(pokemon));
+            namesById.put(pokemon.getId(), name);
+            learnsets.put(pokemon.getId(), LearnsetIndex.tuples(pokemon, versionGroupNames, methodNames));
+        });
+
+        final PokemonIndexes indexes = new PokemonIndexes(
+                new StatIndex(names, stats, types),
+                new HolderIndex(abilities, moves, namesById),
+                new LearnsetIndex(learnsets, versionGroupNames, methodNames));
+        LOG.info("Indexed the stats, abilities and learnsets of {} Pokemon.", names.size());
+        return indexes;
+    }
+
+    /**
+     * Bring the indexes that follow changes up to date with a freshly loaded Pokemon; any that isn't the default of an
+     * indexed species is ignored
+     */
+    public void update(final Pokemon pokemon)
+    {
+        holders_.update(pokemon);
+        learnsets_.update(pokemon);
+    }
+
+    public StatIndex getStats()
+    {
+        return stats_;
+    }
+
+    public HolderIndex getHolders()
+    {
+        return holders_;
+    }
+
+    public LearnsetIndex getLearnsets()
+    {
+        return learnsets_;
+    }
+}
@@ -0,0 +1,95 @@
+package dex.pokemon;
+
+import dex.util.ImageUtils;
+import dex.util.ImageVariants;
+import dex.util.PersistentByteCache;
+import dex.util.ThrowableUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Silhouettes of each species' {@link OfficialArtwork official artwork}, as encoded PNGs
+ *
+ * Silhouettes are rendered once and kept on disk, so they survive restarts, with the most recently used also kept in
+ * memory.  {@link #prerender} fills the disk cache ahead of time, so that nobody waits on one being rendered.
+ */
+public class SilhouetteCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SilhouetteCache.class);
+
+    private static final Color SILHOUETTE_COLOR = Color.white;
+    // Shown at the same size as the artwork revealed after it
+    private static final int MAX_DIMENSION = ArtworkCache.MAX_DIMENSION;
+
+    private final OfficialArtwork artwork_;
+    private final PersistentByteCache silhouettes_;
+
+    /**
+     * @param artwork       Artwork to render silhouettes of
+     * @param directory     Where rendered silhouettes are kept between runs
+     * @param maximumBytes  Rough bound on the memory held by silhouettes
+     */
+    public SilhouetteCache(final OfficialArtwork artwork, final Path directory, final long maximumBytes)
+    {
+        artwork_ = artwork;
+        silhouettes_ = new PersistentByteCache(directory, "%d.png", maximumBytes);
+    }
+
+    /**
+     * @return  The species' silhouette as a PNG, if it has any artwork
+     */
+    public Optional<byte[]> get(final int speciesId)
+    {
+        try {
+            final Optional<byte[]> stored = silhouettes_.getIfPresent(speciesId);
+            return stored.isPresent() ? stored : Optional.of(render(speciesId));
+        } catch (Exception e) {
+            LOG.warn("Could not get a silhouette for species #{}.", speciesId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Render and store the silhouette of every given species that isn't already on disk
+     */
+    public void prerender(final Collection<Integer> speciesIds)
+    {
+        int rendered = 0;
+        for (final int id : speciesIds) {
+            if (silhouettes_.isStored(id)) {
+                continue;
+            }
+            try {
+                render(id);
+                rendered++;
+            } catch (Exception e) {
+                LOG.warn("Could not render a silhouette for species #{}.", id, e);
+            }
+        }
+        LOG.info("Rendered {} silhouettes ({} species checked).", rendered, speciesIds.size());
+    }
+
+    private byte[] render(final int id) throws IOException
+    {
+        final BufferedImage image;
+        try (final InputStream art = artwork_.open(id)
+                .orElseThrow(ThrowableUtils.fail("No artwork for species #%d!", id))) {
+            // Palette-based artwork can't be recolored in place
+            image = ImageUtils.toArgb(ImageIO.read(art));
+        }
+        ImageUtils.colorImage(image, SILHOUETTE_COLOR);
+        // One colour at varying transparency nearly always fits a palette
+        final byte[] silhouette = ImageVariants.smallestPng(image, MAX_DIMENSION);
+        silhouettes_.put(id, silhouette);
+        return silhouette;
+    }
+}
@@ -0,0 +1,115 @@
+package dex.pokemon;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dex.util.Deadline;
+import dex.util.DeadlineExceededException;
+import dex.util.ImageUtils;
+import dex.util.ImageVariants;
+import dex.util.PersistentByteCache;
+import dex.util.ThrowableUtils;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Each Pokemon's sprites (front default, female and shiny) side by side, as an encoded PNG
+ *
+ * Sprite sheets are built once, by downloading and decoding every sprite at the same time, then kept on disk so they
+ * survive restarts, with the most recently used also kept in memory.
+ */
+public class SpriteCache
+{
+    // Sprites are downloaded and decoded here, all at once
+    private static final ExecutorService LOADER = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("sprite-loader-%d")
+            .setDaemon(true)
+            .build());
+
+    private final PersistentByteCache sheets_;
+
+    /**
+     * @param directory     Where sprite sheets are kept between runs
+     * @param maximumBytes  Rough bound on the memory held by sprite sheets
+     */
+    public SpriteCache(final Path directory, final long maximumBytes)
+    {
+        sheets_ = new PersistentByteCache(directory, "%d.png", maximumBytes);
+    }
+
+    /**
+     * @return  The Pokemon's sprite sheet as a PNG, building it if it's never been built before
+     * @throws DeadlineExceededException if the sprites couldn't be downloaded in time
+     */
+    public byte[] get(final Pokemon pokemon, final Deadline deadline) throws IOException
+    {
+        final Optional<byte[]> stored = sheets_.getIfPresent(pokemon.getId());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        final byte[] sheet = build(pokemon, deadline);
+        sheets_.put(pokemon.getId(), sheet);
+        return sheet;
+    }
+
+    /**
+     * As {@link #get}, but without waiting, so the sprite sheet can be built while other work goes on
+     */
+    public CompletableFuture<byte[]> getAsync(final Pokemon pokemon, final Deadline deadline)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return get(pokemon, deadline);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, LOADER);
+    }
+
+    private byte[] build(final Pokemon pokemon, final Deadline deadline) throws IOException
+    {
+        final List<Future<BufferedImage>> downloads = Stream.of(
+                pokemon.getSprites().getFrontDefault(),
+                pokemon.getSprites().getFrontFemale(),
+                pokemon.getSprites().getFrontShiny())
+                .filter(url -> url != null)
+                .map(url -> LOADER.submit(() -> ImageUtils.readImage(url, deadline)))
+                .collect(Collectors.toList());
+
+        final List<BufferedImage> sprites = new ArrayList<>(downloads.size());
+        try {
+            for (final Future<BufferedImage> download : downloads) {
+                sprites.add(download.get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            downloads.forEach(download -> download.cancel(true));
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            downloads.forEach(download -> download.cancel(true));
+            Thread.currentThread().interrupt();
+            throw ThrowableUtils.toUnchecked(e);
+        } catch (ExecutionException e) {
+            downloads.forEach(download -> download.cancel(true));
+            throw ThrowableUtils.toUnchecked(
+                    String.format("Could not download the sprites of Pokemon #%d!", pokemon.getId()), e.getCause());
+        }
+
+        // Pixel art has few colours and shouldn't be resampled, so it's never scaled down
+        return ImageVariants.smallestPng(ImageUtils.combine(sprites), Integer.MAX_VALUE);
+    }
+}
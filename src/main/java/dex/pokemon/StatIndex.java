@@ -0,0 +1,168 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import dex.util.ParsingUtils;
+import me.sargunvohra.lib.pokekotlin.model.Pokemon;
+import me.sargunvohra.lib.pokekotlin.model.PokemonStat;
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Every Pokemon's base stats, with each stat's leaderboard sorted once up front
+ *
+ * Each Pokemon is a row, referred to by its index, and each of its types a bit in a bitset, so that a leaderboard
+ * restricted to a type is a walk down the presorted rows skipping those without the bit.
+ */
+public class StatIndex
+{
+    // Ranked stats, as the PokeAPI names them: HP, the stats a nature can affect, then the sum of all of them
+    public static final ImmutableList<String> STATS = ImmutableList.<String>builder()
+            .add("hp")
+            .addAll(NatureTable.STATS)
+            .add("total")
+            .build();
+    // Where the stats a nature can affect start, so that their short names can be shared with NatureTable
+    private static final int NATURE_STATS_OFFSET = 1;
+    // Short names people use for the total, besides its name above
+    private static final ImmutableSet<String> TOTAL_ALIASES = ImmutableSet.of("bst");
+    private static final int TOTAL = STATS.size() - 1;
+
+    private final String[] names_;
+    // Indexed by stat, then row
+    private final int[][] stats_;
+    // Bit t of types_[row] is set if the Pokemon has type t of typeNames_
+    private final long[] types_;
+    private final ImmutableList<String> typeNames_;
+    // Rows in descending order of each stat, indexed by stat
+    private final int[][] rankings_;
+
+    /**
+     * @param names     Name of each Pokemon
+     * @param stats     Each Pokemon's base stats, in the order of {@link #STATS} without the total
+     * @param types     Each Pokemon's type names
+     */
+    StatIndex(final List<String> names, final List<int[]> stats, final List<List<String>> types)
+    {
+        Validate.isTrue(names.size() == stats.size() && names.size() == types.size(),
+                "Expected names, stats and types of every Pokemon!");
+        final int size = names.size();
+
+        names_ = names.toArray(new String[size]);
+        typeNames_ = ImmutableList.copyOf(new TreeSet<>(types.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList())));
+        Validate.isTrue(typeNames_.size() <= Long.SIZE, "Can index at most %d types!", Long.SIZE);
+
+        stats_ = new int[STATS.size()][size];
+        types_ = new long[size];
+        for (int row = 0; row < size; row++) {
+            for (int stat = 0; stat < TOTAL; stat++) {
+                stats_[stat][row] = stats.get(row)[stat];
+                stats_[TOTAL][row] += stats.get(row)[stat];
+            }
+            for (final String type : types.get(row)) {
+                types_[row] |= 1L << typeNames_.indexOf(type);
+            }
+        }
+
+        rankings_ = new int[STATS.size()][];
+        for (int stat = 0; stat < STATS.size(); stat++) {
+            final int[] values = stats_[stat];
+            // Highest first, then in the order the Pokemon were given
+            rankings_[stat] = IntStream.range(0, size)
+                    .boxed()
+                    .sorted((first, second) -> values[first] != values[second]
+                            ? Integer.compare(values[second], values[first])
+                            : Integer.compare(first, second))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    public int size()
+    {
+        return names_.length;
+    }
+
+    /**
+     * @return  Index in {@link #STATS} of a stat, given its name or a common short name
+     */
+    public static Optional<Integer> statIndex(final String stat)
+    {
+        final String name = ParsingUtils.comparisonFormat(stat);
+        final int index = STATS.indexOf(name);
+        if (index >= 0) {
+            return Optional.of(index);
+        }
+        if (TOTAL_ALIASES.contains(name)) {
+            return Optional.of(TOTAL);
+        }
+        return NatureTable.statIndex(name).map(natureStat -> natureStat + NATURE_STATS_OFFSET);
+    }
+
+    /**
+     * @return  Bitset with only the given type's bit set, if any Pokemon has that type
+     */
+    public Optional<Long> typeBit(final String type)
+    {
+        final int index = typeNames_.indexOf(ParsingUtils.comparisonFormat(type));
+        return index >= 0 ? Optional.of(1L << index) : Optional.empty();
+    }
+
+    /**
+     * @param requiredTypes     Bitset of types a Pokemon must all have to be ranked, or 0 to rank every Pokemon
+     * @return  Rows of up to {@code limit} Pokemon with the highest value of the stat, highest first
+     */
+    public int[] top(final int stat, final long requiredTypes, final int limit)
+    {
+        Validate.isTrue(limit > 0, "Must ask for at least one Pokemon!");
+        final int[] ranking = rankings_[stat];
+        final int[] top = new int[Math.min(limit, ranking.length)];
+        int found = 0;
+        for (int i = 0; i < ranking.length && found < top.length; i++) {
+            if ((types_[ranking[i]] & requiredTypes) == requiredTypes) {
+                top[found++] = ranking[i];
+            }
+        }
+        return Arrays.copyOf(top, found);
+    }
+
+    public String getName(final int row)
+    {
+        return names_[row];
+    }
+
+    public int get(final int stat, final int row)
+    {
+        return stats_[stat][row];
+    }
+
+    /**
+     * @return  A Pokemon's base stats, in the order of {@link #STATS} without the total
+     */
+    static int[] baseStats(final Pokemon pokemon)
+    {
+        final int[] stats = new int[TOTAL];
+        for (final PokemonStat stat : pokemon.getStats()) {
+            final int index = STATS.indexOf(stat.getStat().getName());
+            if (index >= 0 && index < TOTAL) {
+                stats[index] = stat.getBaseStat();
+            }
+        }
+        return stats;
+    }
+
+    static List<String> typeNames(final Pokemon pokemon)
+    {
+        return pokemon.getTypes().stream()
+                .map(type -> type.getType().getName())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,113 @@
+package dex.pokemon;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.List;
+
+/**
+ * How a team of up to {@link #MAX_TEAM_SIZE} Pokemon fares against each type, on offense and on defense
+ *
+ * Each member is a bit in the defensive bitsets, and each type a bit in the offensive one, so that a team is summed
+ * up with a handful of ORs over {@link TypeChart} rows.
+ */
+public class TeamCoverage
+{
+    public static final int MAX_TEAM_SIZE = 6;
+
+    private final TypeChart chart_;
+    // Bit m of weakMembers_[attacker] is set if team member m takes more than normal damage from the attacking type
+    private final int[] weakMembers_;
+    private final int[] resistantMembers_;
+    private final int[] immuneMembers_;
+    // Bit d is set if some member's own type is super effective against defending type d
+    private final long superEffectiveTargets_;
+
+    private TeamCoverage(final TypeChart chart, final int[] weakMembers, final int[] resistantMembers,
+            final int[] immuneMembers, final long superEffectiveTargets)
+    {
+        chart_ = chart;
+        weakMembers_ = weakMembers;
+        resistantMembers_ = resistantMembers;
+        immuneMembers_ = immuneMembers;
+        superEffectiveTargets_ = superEffectiveTargets;
+    }
+
+    /**
+     * @param memberTypes   Each team member's type indices in the chart
+     */
+    public static TeamCoverage of(final TypeChart chart, final List<int[]> memberTypes)
+    {
+        Validate.notNull(chart);
+        Validate.inclusiveBetween(1, MAX_TEAM_SIZE, memberTypes.size(),
+                String.format("A team has between 1 and %d members!", MAX_TEAM_SIZE));
+
+        final int[] weakMembers = new int[chart.size()];
+        final int[] resistantMembers = new int[chart.size()];
+        final int[] immuneMembers = new int[chart.size()];
+        long superEffectiveTargets = 0;
+        for (int member = 0; member < memberTypes.size(); member++) {
+            final int[] types = memberTypes.get(member);
+            final float[] multipliers = chart.defensiveMultipliers(types);
+            for (int attacker = 0; attacker < multipliers.length; attacker++) {
+                if (multipliers[attacker] > 1.0f) {
+                    weakMembers[attacker] |= 1 << member;
+                } else if (multipliers[attacker] == 0.0f) {
+                    immuneMembers[attacker] |= 1 << member;
+                } else if (multipliers[attacker] < 1.0f) {
+                    resistantMembers[attacker] |= 1 << member;
+                }
+            }
+            // Members are assumed to carry attacks of their own types
+            for (final int type : types) {
+                superEffectiveTargets |= chart.superEffectiveTargets(type);
+            }
+        }
+
+        return new TeamCoverage(chart, weakMembers, resistantMembers, immuneMembers, superEffectiveTargets);
+    }
+
+    public TypeChart getChart()
+    {
+        return chart_;
+    }
+
+    /**
+     * @return  Bitset of the team members, by position, that take more than normal damage from the attacking type
+     */
+    public int getWeakMembers(final int attacker)
+    {
+        return weakMembers_[attacker];
+    }
+
+    /**
+     * @return  Bitset of the team members, by position, that take less than normal but some damage from the type
+     */
+    public int getResistantMembers(final int attacker)
+    {
+        return resistantMembers_[attacker];
+    }
+
+    /**
+     * @return  Bitset of the team members, by position, that take no damage from the attacking type
+     */
+    public int getImmuneMembers(final int attacker)
+    {
+        return immuneMembers_[attacker];
+    }
+
+    /**
+     * @return  Whether any member's own type is super effective against the defending type
+     */
+    public boolean isCovered(final int defender)
+    {
+        return (superEffectiveTargets_ & (1L << defender)) != 0;
+    }
+
+    /**
+     * @return  How many types some member's own type is super effective against
+     */
+    public int getCoveredCount()
+    {
+        return Long.bitCount(superEffectiveTargets_);
+    }
+}
@@ -0,0 +1,171 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import dex.util.ParsingUtils;
+import dex.util.ThrowableUtils;
+import me.sargunvohra.lib.pokekotlin.model.NamedApiResource;
+import me.sargunvohra.lib.pokekotlin.model.Type;
+import me.sargunvohra.lib.pokekotlin.model.TypeRelations;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Damage multipliers between every pair of types, built once from each {@link Type}'s damage relations
+ *
+ * Types are referred to by a dense index from 0 to {@link #size()}, so that any matchup is a single array lookup.
+ */
+public class TypeChart
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TypeChart.class);
+
+    // Type names, by index
+    private final ImmutableList<String> names_;
+    private final ImmutableMap<String, Integer> indices_;
+    // Multiplier of an attack of one type against another, at [attacker * size + defender]
+    private final float[] multipliers_;
+    // Bit d of superEffectiveTargets_[attacker] is set if the attacker is super effective against defending type d
+    private final long[] superEffectiveTargets_;
+
+    TypeChart(final List<String> names, final float[] multipliers)
+    {
+        Validate.isTrue(names.size() <= Long.SIZE, "A type chart can hold at most %d types!", Long.SIZE);
+        Validate.isTrue(multipliers.length == names.size() * names.size(),
+                "Expected %d multipliers for %d types, got %d!", names.size() * names.size(), names.size(),
+                multipliers.length);
+
+        names_ = ImmutableList.copyOf(names);
+        final ImmutableMap.Builder<String, Integer> indices = ImmutableMap.builder();
+        for (int i = 0; i < names_.size(); i++) {
+            indices.put(ParsingUtils.comparisonFormat(names_.get(i)), i);
+        }
+        indices_ = indices.build();
+        multipliers_ = multipliers;
+
+        superEffectiveTargets_ = new long[names_.size()];
+        for (int attacker = 0; attacker < names_.size(); attacker++) {
+            for (int defender = 0; defender < names_.size(); defender++) {
+                if (multiplier(attacker, defender) > 1.0f) {
+                    superEffectiveTargets_[attacker] |= 1L << defender;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetch every type and build up the chart from their damage relations
+     *
+     * Types that have no damage relations at all, such as "unknown" and "shadow", never come up in battle and are left
+     * out.
+     */
+    public static TypeChart build(final DynamicPokeApi client, final NameCache typeIds)
+    {
+        final List<Type> types = typeIds.getAllIds().stream()
+                .sorted()
+                .map(id -> client.get(Type.class, id)
+                        .orElseThrow(ThrowableUtils.fail("Could not get Type #%d to build the type chart!", id)))
+                .filter(TypeChart::hasDamageRelations)
+                .collect(Collectors.toList());
+        final List<String> names = types.stream()
+                .map(Type::getName)
+                .collect(Collectors.toList());
+
+        final int size = names.size();
+        final float[] multipliers = new float[size * size];
+        Arrays.fill(multipliers, 1.0f);
+        for (int attacker = 0; attacker < size; attacker++) {
+            final TypeRelations relations = types.get(attacker).getDamageRelations();
+            setMultipliers(multipliers, names, attacker, relations.getDoubleDamageTo(), 2.0f);
+            setMultipliers(multipliers, names, attacker, relations.getHalfDamageTo(), 0.5f);
+            setMultipliers(multipliers, names, attacker, relations.getNoDamageTo(), 0.0f);
+        }
+
+        LOG.info("Built a type chart of {} types.", size);
+        return new TypeChart(names, multipliers);
+    }
+
+    public int size()
+    {
+        return names_.size();
+    }
+
+    public Optional<Integer> indexOf(final String name)
+    {
+        Validate.notNull(name, "Cannot look up a null type!");
+        return Optional.ofNullable(indices_.get(ParsingUtils.comparisonFormat(name)));
+    }
+
+    public String nameOf(final int index)
+    {
+        return names_.get(index);
+    }
+
+    /**
+     * @return  Multiplier of an attack of the attacking type against a Pokemon of the defending type(s)
+     */
+    public float multiplier(final int attacker, final int... defenders)
+    {
+        float multiplier = 1.0f;
+        for (final int defender : defenders) {
+            multiplier *= multipliers_[attacker * size() + defender];
+        }
+        return multiplier;
+    }
+
+    /**
+     * @return  Multiplier of an attack of each type, by index, against a Pokemon of the defending type(s)
+     */
+    public float[] defensiveMultipliers(final int... defenders)
+    {
+        final float[] multipliers = new float[size()];
+        for (int attacker = 0; attacker < multipliers.length; attacker++) {
+            multipliers[attacker] = multiplier(attacker, defenders);
+        }
+        return multipliers;
+    }
+
+    /**
+     * @return  Indices of the types whose attacks are super effective against a Pokemon of the defending type(s)
+     */
+    public int[] superEffectiveAgainst(final int... defenders)
+    {
+        final float[] multipliers = defensiveMultipliers(defenders);
+        return IntStream.range(0, multipliers.length)
+                .filter(attacker -> multipliers[attacker] > 1.0f)
+                .toArray();
+    }
+
+    /**
+     * @return  Bitset of the single defending types, by index, that the attacking type is super effective against
+     */
+    public long superEffectiveTargets(final int attacker)
+    {
+        return superEffectiveTargets_[attacker];
+    }
+
+    private static boolean hasDamageRelations(final Type type)
+    {
+        final TypeRelations relations = type.getDamageRelations();
+        return !(relations.getDoubleDamageTo().isEmpty() && relations.getHalfDamageTo().isEmpty()
+                && relations.getNoDamageTo().isEmpty() && relations.getDoubleDamageFrom().isEmpty()
+                && relations.getHalfDamageFrom().isEmpty() && relations.getNoDamageFrom().isEmpty());
+    }
+
+    private static void setMultipliers(final float[] multipliers, final List<String> names, final int attacker,
+            final List<NamedApiResource> defenders, final float multiplier)
+    {
+        for (final NamedApiResource defender : defenders) {
+            final int index = names.indexOf(defender.getName());
+            if (index >= 0) {
+                multipliers[attacker * names.size() + index] = multiplier;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dex.util;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Something slow to build, such as an index crawled from the API, built off to the side at startup
+ *
+ * A build that fails is logged and tried again after a delay, for as long as it takes, so a brief outage at startup
+ * doesn't take a feature away until the next restart.  Readers can tell "still building" apart from "the last attempt
+ * failed" and answer accordingly, rather than waiting on it.
+ */
+public class BackgroundBuild<T>
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundBuild.class);
+
+    private final String name_;
+    // Only ever completed normally
+    private final CompletableFuture<T> built_;
+    // Whether the last attempt failed; shared with any parts mapped from it
+    private final AtomicBoolean failed_;
+
+    private BackgroundBuild(final String name, final CompletableFuture<T> built, final AtomicBoolean failed)
+    {
+        name_ = name;
+        built_ = built;
+        failed_ = failed;
+    }
+
+    /**
+     * Start building on the executor, trying again after the delay whenever an attempt fails
+     * @param name  What's being built, as it reads in logs and replies, e.g. "type chart"
+     */
+    public static <T> BackgroundBuild<T> start(final String name, final Supplier<T> builder,
+            final ScheduledExecutorService executor, final long retryDelay, final TimeUnit unit)
+    {
+        Validate.notNull(name);
+        Validate.notNull(builder);
+        Validate.notNull(executor);
+        Validate.isTrue(retryDelay > 0, "Failed builds must wait some time before being retried!");
+
+        final BackgroundBuild<T> build = new BackgroundBuild<>(name, new CompletableFuture<>(), new AtomicBoolean());
+        executor.execute(() -> build.attempt(builder, executor, unit.toMillis(retryDelay)));
+        return build;
+    }
+
+    /**
+     * Share one build between several readers that each only need part of it
+     * @param name  What the part is, as it reads in logs and replies
+     * @param part  Picks the part out of what was built; it mustn't throw
+     * @return  A build of the part, which is built once this is and reads as failed whenever this does
+     */
+    public <U> BackgroundBuild<U> map(final String name, final Function<? super T, ? extends U> part)
+    {
+        Validate.notNull(name);
+        Validate.notNull(part);
+
+        return new BackgroundBuild<>(name, built_.thenApply(part), failed_);
+    }
+
+    public String getName()
+    {
+        return name_;
+    }
+
+    /**
+     * @return  What was built, or nothing if it's still being built or the last attempt failed
+     */
+    public Optional<T> getIfBuilt()
+    {
+        return Optional.ofNullable(built_.getNow(null));
+    }
+
+    /**
+     * @return  Whether it hasn't been built because the last attempt failed; another is on its way
+     */
+    public boolean hasFailed()
+    {
+        return failed_.get() && !built_.isDone();
+    }
+
+    /**
+     * @return  A future completed once it's built, which never completes exceptionally
+     */
+    public CompletableFuture<T> whenBuilt()
+    {
+        // A copy, so that nobody holding it can complete the original
+        return built_.thenApply(Function.identity());
+    }
+
+    private void attempt(final Supplier<T> builder, final ScheduledExecutorService executor,
+            final long retryDelayMillis)
+    {
+        try {
+            final T built = builder.get();
+            failed_.set(false);
+            built_.complete(built);
+        } catch (RuntimeException e) {
+            failed_.set(true);
+            LOG.error("Could not build the {}; trying again in {}s.", name_,
+                    TimeUnit.MILLISECONDS.toSeconds(retryDelayMillis), e);
+            executor.schedule(() -> attempt(builder, executor, retryDelayMillis), retryDelayMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+}
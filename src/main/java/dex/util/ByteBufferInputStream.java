@@ -0,0 +1,54 @@
+package dex.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Read a buffer's remaining bytes as a stream, without copying them out first
+ */
+public class ByteBufferInputStream extends InputStream
+{
+    private final ByteBuffer buffer_;
+
+    /**
+     * @param buffer    Read from its position to its limit; its position moves as the stream is read
+     */
+    public ByteBufferInputStream(final ByteBuffer buffer)
+    {
+        buffer_ = buffer;
+    }
+
+    @Override
+    public int read()
+    {
+        return buffer_.hasRemaining() ? buffer_.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] destination, final int offset, final int length)
+    {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer_.hasRemaining()) {
+            return -1;
+        }
+        final int read = Math.min(length, buffer_.remaining());
+        buffer_.get(destination, offset, read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long count)
+    {
+        final int skipped = (int) Math.max(0, Math.min(count, buffer_.remaining()));
+        buffer_.position(buffer_.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+        return buffer_.remaining();
+    }
+}
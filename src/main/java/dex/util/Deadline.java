@@ -0,0 +1,100 @@
+package dex.util;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A point in time after which work on a request is no longer worth doing
+ *
+ * Work checks its deadline cooperatively: blocking calls are bounded by {@link #remaining(TimeUnit)}, and loops call
+ * {@link #check()} between steps so they give up as soon as nobody is waiting for the answer.
+ */
+public class Deadline
+{
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    // Compared against System.nanoTime(); Long.MAX_VALUE means there is no deadline
+    private final long expiryNanos_;
+
+    private Deadline(final long expiryNanos)
+    {
+        expiryNanos_ = expiryNanos;
+    }
+
+    public static Deadline after(final long duration, final TimeUnit unit)
+    {
+        Validate.isTrue(duration > 0, "A deadline must be in the future!");
+        Validate.notNull(unit);
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * For work that is allowed to take as long as it takes
+     */
+    public static Deadline none()
+    {
+        return NONE;
+    }
+
+    public boolean isExpired()
+    {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * @return  Time left before the deadline, never negative
+     */
+    public long remaining(final TimeUnit unit)
+    {
+        return unit.convert(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time left before the deadline, as an int suitable for {@link java.net.URLConnection} timeouts
+     * @throws DeadlineExceededException if there is no time left
+     */
+    public int remainingTimeoutMillis()
+    {
+        check();
+        // A timeout of 0 means 'forever' to URLConnection, so round up to at least a millisecond
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remaining(TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * Wait for a result, but no longer than the deadline
+     *
+     * The work itself is left running if it isn't done in time.
+     * @throws DeadlineExceededException if the result wasn't ready in time
+     * @throws ExecutionException if the work failed
+     */
+    public <T> T await(final Future<T> future) throws ExecutionException
+    {
+        try {
+            return future.get(remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ThrowableUtils.toUnchecked(e);
+        }
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check()
+    {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    private long remainingNanos()
+    {
+        return expiryNanos_ == Long.MAX_VALUE ? Long.MAX_VALUE : expiryNanos_ - System.nanoTime();
+    }
+}
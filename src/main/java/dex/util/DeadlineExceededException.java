@@ -0,0 +1,20 @@
+package dex.util;
+
+/**
+ * Thrown when a {@link Deadline} passes before the work it bounds is finished
+ */
+public class DeadlineExceededException extends RuntimeException
+{
+    public DeadlineExceededException()
+    {
+        super("Deadline exceeded!");
+    }
+
+    /**
+     * @param cause What the deadline running out looked like to the work it interrupted, such as a timeout
+     */
+    public DeadlineExceededException(final Throwable cause)
+    {
+        super("Deadline exceeded!", cause);
+    }
+}
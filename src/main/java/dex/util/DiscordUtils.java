@@ -1,18 +1,25 @@
 package dex.util;
 
+import dex.discord.respond.SendScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sx.blah.discord.handle.obj.IChannel;
-import sx.blah.discord.util.DiscordException;
-import sx.blah.discord.util.MissingPermissionsException;
-import sx.blah.discord.util.RateLimitException;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class DiscordUtils
 {
+    private static final Logger LOG = LoggerFactory.getLogger(DiscordUtils.class);
+
+    // Discord refuses messages longer than this
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
     private static final List<String> UNHAPPY_REPLIES = Stream.of(
             "AAAAAAAUGH",
             "AAAAAUGH",
@@ -24,40 +31,81 @@ public class DiscordUtils
             "NOPE")
             .collect(Collectors.toList());
 
-    public static void uncheckedSendFile(final IChannel channel, final InputStream stream, final String message)
+    public static void uncheckedSendFile(final SendScheduler sends, final IChannel channel, final byte[] content,
+            final String message)
     {
-        try {
-            channel.sendFile(stream, "image.png", message);
-        } catch (MissingPermissionsException | RateLimitException | DiscordException | IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
+        await(sends.sendFile(channel, content, "image.png", message));
     }
 
-    public static void uncheckedSendFile(final IChannel channel, final InputStream stream)
+    public static void uncheckedSendFile(final SendScheduler sends, final IChannel channel, final ByteBuffer content,
+            final String message)
     {
-        try {
-            channel.sendFile(stream, "image.png");
-        } catch (MissingPermissionsException | RateLimitException | DiscordException | IOException e) {
-            throw ThrowableUtils.toUnchecked(e);
-        }
+        await(sends.sendFile(channel, content, "image.png", message));
+    }
+
+    public static void uncheckedSendMessage(final SendScheduler sends, final IChannel channel, final String message)
+    {
+        await(sends.sendMessage(channel, message));
+    }
+
+    /**
+     * Queue a message without waiting for it to be sent
+     */
+    public static void trySendMessage(final SendScheduler sends, final IChannel channel, final String message)
+    {
+        sends.sendMessage(channel, message).whenComplete((sent, e) -> {
+            if (e != null) {
+                // Hehehe nope
+                LOG.debug("Could not send message '{}'.", message, e);
+            }
+        });
     }
 
-    public static void uncheckedSendMessage(final IChannel channel, final String message)
+    /**
+     * Wait for a send queued on the {@link SendScheduler} to finish
+     */
+    private static void await(final CompletableFuture<?> send)
     {
         try {
-            channel.sendMessage(message);
-        } catch (MissingPermissionsException | RateLimitException | DiscordException e) {
-            throw ThrowableUtils.toUnchecked(e);
+            send.join();
+        } catch (CompletionException e) {
+            throw ThrowableUtils.toUnchecked(e.getCause());
         }
     }
 
-    public static void trySendMessage(final IChannel channel, final String message)
+    /**
+     * Split content into as few messages as possible, breaking between lines wherever a line fits
+     *
+     * Only lines too long for a message on their own are broken mid-line.
+     */
+    public static List<String> splitIntoMessages(final String content)
     {
-        try {
-            channel.sendMessage(message);
-        } catch (MissingPermissionsException | RateLimitException | DiscordException e) {
-            // Hehehe nope
+        final List<String> messages = new ArrayList<>(content.length() / MAX_MESSAGE_LENGTH + 1);
+        int start = 0;
+        while (content.length() - start > MAX_MESSAGE_LENGTH) {
+            final int limit = start + MAX_MESSAGE_LENGTH;
+            // A \r\n separator may straddle the limit while the line before it still fits
+            int lineBreak = content.lastIndexOf('\n', limit + 1);
+            if (lineEnd(content, lineBreak) > limit) {
+                lineBreak = content.lastIndexOf('\n', limit);
+            }
+            if (lineBreak > start) {
+                messages.add(content.substring(start, lineEnd(content, lineBreak)));
+                start = lineBreak + 1;
+            } else {
+                // Don't separate the halves of a surrogate pair
+                final int end = Character.isHighSurrogate(content.charAt(limit - 1)) ? limit - 1 : limit;
+                messages.add(content.substring(start, end));
+                start = end;
+            }
         }
+        messages.add(content.substring(start));
+        return messages;
+    }
+
+    private static int lineEnd(final String content, final int lineBreak)
+    {
+        return lineBreak > 0 && content.charAt(lineBreak - 1) == '\r' ? lineBreak - 1 : lineBreak;
     }
 
     public static String getUnhappyReply()
@@ -5,43 +5,114 @@ import org.apache.commons.lang3.Validate;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 public class ImageUtils
 {
-    public static InputStream toPngInputStream(final BufferedImage image) throws IOException
+    public static byte[] toPngBytes(final BufferedImage image) throws IOException
     {
-        return toInputStream(image, "png");
+        return toPngBytes(image, PngEncoder.Compression.standard);
     }
 
-    public static InputStream toInputStream(final BufferedImage image, final String format) throws IOException
+    public static byte[] toPngBytes(final BufferedImage image, final PngEncoder.Compression compression)
+            throws IOException
     {
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        ImageIO.write(image, format, os);
-        return new ByteArrayInputStream(os.toByteArray());
+        return PngEncoder.encode(image, compression);
     }
 
-    public static BufferedImage colorImage(final BufferedImage image, final Color color) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        WritableRaster raster = image.getRaster();
-
-        for (int xx = 0; xx < width; xx++) {
-            for (int yy = 0; yy < height; yy++) {
-                int[] pixels = raster.getPixel(xx, yy, (int[]) null);
-                pixels[0] = color.getRed();
-                pixels[1] = color.getGreen();
-                pixels[2] = color.getBlue();
-                raster.setPixel(xx, yy, pixels);
+    /**
+     * Download and decode an image, giving up at the deadline
+     */
+    public static BufferedImage readImage(final String address, final Deadline deadline) throws IOException
+    {
+        try (final InputStream stream = NetworkUtils.openStream(address, deadline)) {
+            return ImageIO.read(stream);
+        }
+    }
+
+    /**
+     * Decode an image that's already in memory, such as a rendered attachment
+     */
+    public static BufferedImage readImage(final byte[] content) throws IOException
+    {
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(content));
+        if (image == null) {
+            throw new IOException("Could not recognize the format of an image!");
+        }
+        return image;
+    }
+
+    /**
+     * Recolor every pixel of an image in place, keeping its transparency
+     *
+     * Common image types are recolored with a single pass over their backing arrays; anything else a row at a time.
+     */
+    public static BufferedImage colorImage(final BufferedImage image, final Color color)
+    {
+        final WritableRaster raster = image.getRaster();
+        // Only whole images are laid out as one contiguous array
+        final boolean contiguous = raster.getParent() == null &&
+                raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+
+        if (contiguous && (image.getType() == BufferedImage.TYPE_INT_ARGB ||
+                image.getType() == BufferedImage.TYPE_INT_RGB)) {
+            final int[] pixels = ((DataBufferInt) raster.getDataBuffer()).getData();
+            final int rgb = color.getRGB() & 0x00FFFFFF;
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = (pixels[i] & 0xFF000000) | rgb;
+            }
+        } else if (contiguous && (image.getType() == BufferedImage.TYPE_4BYTE_ABGR ||
+                image.getType() == BufferedImage.TYPE_3BYTE_BGR)) {
+            final byte[] samples = ((DataBufferByte) raster.getDataBuffer()).getData();
+            // Blue, green and red are always the last three samples of each pixel
+            final int stride = image.getType() == BufferedImage.TYPE_4BYTE_ABGR ? 4 : 3;
+            final int first = stride - 3;
+            final byte blue = (byte) color.getBlue();
+            final byte green = (byte) color.getGreen();
+            final byte red = (byte) color.getRed();
+            for (int i = first; i < samples.length; i += stride) {
+                samples[i] = blue;
+                samples[i + 1] = green;
+                samples[i + 2] = red;
+            }
+        } else {
+            Validate.isTrue(raster.getNumBands() >= 3, "Can only recolor images with separate color samples!");
+            final int width = image.getWidth();
+            final int[] row = new int[width * raster.getNumBands()];
+            for (int y = 0; y < image.getHeight(); y++) {
+                raster.getPixels(0, y, width, 1, row);
+                for (int i = 0; i < row.length; i += raster.getNumBands()) {
+                    row[i] = color.getRed();
+                    row[i + 1] = color.getGreen();
+                    row[i + 2] = color.getBlue();
+                }
+                raster.setPixels(0, y, width, 1, row);
             }
         }
         return image;
     }
 
+    /**
+     * @return  The image itself if it's already {@link BufferedImage#TYPE_INT_ARGB}, otherwise a copy that is
+     */
+    public static BufferedImage toArgb(final BufferedImage image)
+    {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return image;
+        }
+        final BufferedImage converted = new BufferedImage(
+                image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        final Graphics graphics = converted.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return converted;
+    }
+
     public static BufferedImage combine(final java.util.List<BufferedImage> images)
     {
         Validate.notEmpty(images, "Can't combine an empty list of images!");
@@ -71,4 +142,31 @@ public class ImageUtils
 
         return combined;
     }
+
+    /**
+     * Stack images of any size top to bottom, left-aligned on a transparent background
+     */
+    public static BufferedImage stack(final java.util.List<BufferedImage> images)
+    {
+        Validate.notEmpty(images, "Can't stack an empty list of images!");
+
+        final int width = images.stream()
+                .mapToInt(BufferedImage::getWidth)
+                .max()
+                .getAsInt();
+        final int height = images.stream()
+                .mapToInt(BufferedImage::getHeight)
+                .sum();
+        final BufferedImage stacked = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        final Graphics graphics = stacked.createGraphics();
+        int yOffset = 0;
+        for (final BufferedImage image : images) {
+            graphics.drawImage(image, 0, yOffset, null);
+            yOffset += image.getHeight();
+        }
+        graphics.dispose();
+
+        return stacked;
+    }
 }
@@ -0,0 +1,102 @@
+package dex.util;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Smaller renditions of images for uploading: capped in size, and with a colour palette wherever that's lossless
+ */
+public class ImageVariants
+{
+    // The most colours an indexed PNG can hold
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    /**
+     * Encode the smallest acceptable PNG rendition of an image
+     * @param maxDimension  Largest width or height to send; larger images are scaled down to fit
+     */
+    public static byte[] smallestPng(final BufferedImage image, final int maxDimension) throws IOException
+    {
+        final BufferedImage capped = downscale(image, maxDimension);
+        final byte[] truecolor = ImageUtils.toPngBytes(capped, PngEncoder.Compression.smallest);
+
+        final Optional<BufferedImage> indexed = toIndexed(capped);
+        if (!indexed.isPresent()) {
+            return truecolor;
+        }
+        final byte[] palette = ImageUtils.toPngBytes(indexed.get(), PngEncoder.Compression.smallest);
+        return palette.length < truecolor.length ? palette : truecolor;
+    }
+
+    /**
+     * @return  The image itself if it already fits, otherwise a smoothly scaled-down copy that does
+     */
+    public static BufferedImage downscale(final BufferedImage image, final int maxDimension)
+    {
+        final int largest = Math.max(image.getWidth(), image.getHeight());
+        if (largest <= maxDimension) {
+            return image;
+        }
+
+        final double scale = (double) maxDimension / largest;
+        final int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        final int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        final BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    /**
+     * @return  A copy of the image with a colour palette, if it has few enough colours to convert without loss
+     */
+    public static Optional<BufferedImage> toIndexed(final BufferedImage image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        final Map<Integer, Integer> paletteIndices = new HashMap<>();
+        for (int i = 0; i < pixels.length; i++) {
+            // Fully transparent pixels look the same whatever their colour
+            if (pixels[i] >>> 24 == 0) {
+                pixels[i] = 0;
+            }
+            if (!paletteIndices.containsKey(pixels[i])) {
+                if (paletteIndices.size() == MAX_PALETTE_SIZE) {
+                    return Optional.empty();
+                }
+                paletteIndices.put(pixels[i], paletteIndices.size());
+            }
+        }
+
+        final int size = paletteIndices.size();
+        final byte[] reds = new byte[size];
+        final byte[] greens = new byte[size];
+        final byte[] blues = new byte[size];
+        final byte[] alphas = new byte[size];
+        paletteIndices.forEach((argb, index) -> {
+            alphas[index] = (byte) (argb >>> 24);
+            reds[index] = (byte) (argb >>> 16);
+            greens[index] = (byte) (argb >>> 8);
+            blues[index] = (byte) (int) argb;
+        });
+
+        final BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED,
+                new IndexColorModel(8, size, reds, greens, blues, alphas));
+        final byte[] samples = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            samples[i] = (byte) (int) paletteIndices.get(pixels[i]);
+        }
+        return Optional.of(indexed);
+    }
+}
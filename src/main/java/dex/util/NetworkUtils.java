@@ -0,0 +1,121 @@
+package dex.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class NetworkUtils
+{
+    // Cuts off connections still open at their deadline, since a read timeout only bounds each read on its own
+    private static final ScheduledThreadPoolExecutor CUTOFF = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("network-cutoff-%d")
+                    .setDaemon(true)
+                    .build());
+
+    static {
+        // Most streams are closed long before their deadline, so don't keep their cutoffs around until then
+        CUTOFF.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Open a stream to a URL that gives up at the given deadline, however the time is split between connecting and
+     * reading
+     * @throws DeadlineExceededException if the deadline passes before the stream is opened, or while it's being read
+     */
+    public static InputStream openStream(final URL url, final Deadline deadline) throws IOException
+    {
+        final URLConnection connection = url.openConnection();
+        // Each timeout is taken from whatever time the steps before it left
+        connection.setConnectTimeout(deadline.remainingTimeoutMillis());
+        final ScheduledFuture<?> cutoff = CUTOFF.schedule(() -> cutOff(connection),
+                deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        try {
+            connection.connect();
+            connection.setReadTimeout(deadline.remainingTimeoutMillis());
+            return new DeadlineInputStream(connection.getInputStream(), deadline, cutoff);
+        } catch (IOException e) {
+            cutoff.cancel(false);
+            throw timedOut(e, deadline);
+        } catch (RuntimeException e) {
+            cutoff.cancel(false);
+            throw e;
+        }
+    }
+
+    public static InputStream openStream(final String address, final Deadline deadline) throws IOException
+    {
+        return openStream(new URL(address), deadline);
+    }
+
+    private static void cutOff(final URLConnection connection)
+    {
+        // Closing the socket fails any read blocked on it; other kinds of connection don't block for long
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).disconnect();
+        }
+    }
+
+    /**
+     * Running out of time shows up as a timeout, or as the connection failing under a read once it's been cut off
+     * @return  The exception, if it wasn't down to the deadline
+     * @throws DeadlineExceededException if it was
+     */
+    private static IOException timedOut(final IOException e, final Deadline deadline)
+    {
+        // Every timeout is set from the deadline, so any of them firing means it's been reached
+        if (e instanceof SocketTimeoutException || deadline.isExpired()) {
+            throw new DeadlineExceededException(e);
+        }
+        return e;
+    }
+
+    private static class DeadlineInputStream extends FilterInputStream
+    {
+        private final Deadline deadline_;
+        private final ScheduledFuture<?> cutoff_;
+
+        DeadlineInputStream(final InputStream in, final Deadline deadline, final ScheduledFuture<?> cutoff)
+        {
+            super(in);
+            deadline_ = deadline;
+            cutoff_ = cutoff;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw timedOut(e, deadline_);
+            }
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException
+        {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                throw timedOut(e, deadline_);
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            cutoff_.cancel(false);
+            super.close();
+        }
+    }
+}
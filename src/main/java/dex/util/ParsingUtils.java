@@ -55,28 +55,6 @@ public class ParsingUtils
         return Optional.of(arguments.get(0));
     }
 
-    /**
-     * Parse a message and return the first word, if any
-     */
-    public static Optional<String> getFirstWord(final String message)
-    {
-        final List<String> words = Arrays.stream(message.split(WHITESPACE_PATTERN))
-                .map(ParsingUtils::sanitizeMessageContent)
-                .collect(Collectors.toList());
-        return words.stream().findFirst();
-    }
-
-    public static String sanitizeMessageContent(final String unsanitizedMessageContent)
-    {
-        return unsanitizedMessageContent.trim();
-    }
-
-    public static String getCommandWord(final String commandMessage)
-    {
-        // Remove leading command character
-        return commandMessage.substring(1);
-    }
-
     public static String comparisonFormat(final String s)
     {
         return s.trim().toLowerCase();
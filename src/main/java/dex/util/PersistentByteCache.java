@@ -0,0 +1,87 @@
+package dex.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Rendered files keyed by ID, kept on disk so they survive restarts, with the most recently used also kept in memory
+ */
+public class PersistentByteCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentByteCache.class);
+
+    private final Path directory_;
+    private final String fileNameFormat_;
+    private final Cache<Integer, byte[]> memory_;
+
+    /**
+     * @param directory         Where files are kept between runs
+     * @param fileNameFormat    Name of each file on disk, given its ID
+     * @param maximumBytes      Rough bound on the memory held by files
+     */
+    public PersistentByteCache(final Path directory, final String fileNameFormat, final long maximumBytes)
+    {
+        directory_ = directory;
+        fileNameFormat_ = fileNameFormat;
+        memory_ = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Integer id, byte[] content) -> content.length)
+                .build();
+    }
+
+    /**
+     * @return  The file, from memory or otherwise from disk, if it's been stored
+     */
+    public Optional<byte[]> getIfPresent(final int id) throws IOException
+    {
+        final byte[] cached = memory_.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        final Path path = pathFor(id);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        final byte[] stored = Files.readAllBytes(path);
+        memory_.put(id, stored);
+        return Optional.of(stored);
+    }
+
+    public boolean isStored(final int id)
+    {
+        return memory_.getIfPresent(id) != null || Files.exists(pathFor(id));
+    }
+
+    /**
+     * Keep a file in memory and on disk
+     *
+     * A file that can't be written to disk is still kept in memory; it'll just be rendered again after a restart.
+     */
+    public void put(final int id, final byte[] content)
+    {
+        memory_.put(id, content);
+        try {
+            // Written beside the final file and moved into place, so a half-written file is never read back
+            Files.createDirectories(directory_);
+            final Path temporary = Files.createTempFile(directory_, String.valueOf(id), ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, pathFor(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not store {} in {}.", pathFor(id).getFileName(), directory_, e);
+        }
+    }
+
+    private Path pathFor(final int id)
+    {
+        return directory_.resolve(String.format(fileNameFormat_, id));
+    }
+}
@@ -0,0 +1,114 @@
+package dex.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Encode images as PNGs, reusing a writer and a buffer per thread
+ *
+ * Writing goes through an in-memory image stream rather than ImageIO's default temporary-file cache, into a buffer
+ * that only ever grows, so repeat encodes don't pay for writer lookups or buffer growth.
+ */
+public class PngEncoder
+{
+    // Buffers that have grown past this are dropped after use rather than pinned to their thread
+    private static final int MAX_POOLED_BUFFER_BYTES = 8 * 1024 * 1024;
+
+    private static final ThreadLocal<ImageWriter> WRITERS = ThreadLocal.withInitial(
+            () -> ImageIO.getImageWritersByFormatName("png").next());
+    private static final ThreadLocal<ExposedByteArrayOutputStream> BUFFERS = ThreadLocal.withInitial(
+            () -> new ExposedByteArrayOutputStream(64 * 1024));
+
+    /**
+     * How hard to compress; PNG is lossless, so this only trades encoding time against size
+     *
+     * Java 8's PNG writer can't be told how hard to compress and always uses its default.  Later ones turn the
+     * requested quality into a deflate level, 9 - round(9 * quality), where level 0 stores the image uncompressed, so
+     * even the fastest setting asks for level 1.
+     */
+    public enum Compression
+    {
+        // For images sent once and thrown away
+        fastest(1),
+        standard(4),
+        // For images encoded once and sent many times
+        smallest(9);
+
+        private static final int MAX_DEFLATE_LEVEL = 9;
+
+        private final float quality_;
+
+        Compression(final int deflateLevel)
+        {
+            quality_ = (float) (MAX_DEFLATE_LEVEL - deflateLevel) / MAX_DEFLATE_LEVEL;
+        }
+    }
+
+    /**
+     * Encode an image, copying it out of the pooled buffer rather than handing out a view of it
+     *
+     * Every caller keeps the encoded image, in a cache or a rendered reply, well past this thread's next encode, which
+     * overwrites the buffer.  The one copy at the end is still cheaper than growing a fresh buffer as it's written.
+     * @return  The encoded image, in an array of exactly its size
+     */
+    public static byte[] encode(final BufferedImage image, final Compression compression) throws IOException
+    {
+        final ExposedByteArrayOutputStream buffer = BUFFERS.get();
+        buffer.reset();
+        try {
+            write(image, compression, buffer);
+            return Arrays.copyOf(buffer.buffer(), buffer.size());
+        } finally {
+            if (buffer.buffer().length > MAX_POOLED_BUFFER_BYTES) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    private static void write(final BufferedImage image, final Compression compression,
+            final ByteArrayOutputStream destination) throws IOException
+    {
+        final ImageWriter writer = WRITERS.get();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(compression.quality_);
+        }
+
+        try (final ImageOutputStream output = new MemoryCacheImageOutputStream(destination)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+            output.flush();
+            writer.setOutput(null);
+        } catch (IOException | RuntimeException e) {
+            // Don't trust a writer that failed part way through with the next image
+            WRITERS.remove();
+            writer.dispose();
+            throw e;
+        }
+    }
+
+    /**
+     * Lets the written bytes be read without copying them out first
+     */
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream
+    {
+        ExposedByteArrayOutputStream(final int size)
+        {
+            super(size);
+        }
+
+        byte[] buffer()
+        {
+            return buf;
+        }
+    }
+}
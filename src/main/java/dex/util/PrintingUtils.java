@@ -14,6 +14,7 @@ public class PrintingUtils
     private static final String DIFF_NEW_CONTENT_IDENTIFIER = "+ ";
     private static final String DIFF_OLD_CONTENT_IDENTIFIER = "- ";
     private static final Joiner SLASH_JOINER = Joiner.on("/");
+    private static final String LIST_SEPARATOR = ", ";
 
     public static String properNoun(final String noun)
     {
@@ -68,6 +69,27 @@ public class PrintingUtils
         return code(diffStringBuilder.toString(), "diff");
     }
 
+    /**
+     * Join items with commas, leaving off as many as it takes to stay within a length, e.g. "A, B, ...and 3 more"
+     */
+    public static String truncatedList(final List<String> items, final int maximumLength)
+    {
+        final StringBuilder listBuilder = new StringBuilder();
+        for (int i = 0; i < items.size(); i++) {
+            final String more = String.format("...and %d more", items.size() - i);
+            final boolean isLast = i == items.size() - 1;
+            if (listBuilder.length() + items.get(i).length() + (isLast ? 0 : LIST_SEPARATOR.length() + more.length())
+                    > maximumLength) {
+                return listBuilder.append(more).toString();
+            }
+            listBuilder.append(items.get(i));
+            if (!isLast) {
+                listBuilder.append(LIST_SEPARATOR);
+            }
+        }
+        return listBuilder.toString();
+    }
+
     public static String prettifiedTypes(final List<PokemonType> types)
     {
         return SLASH_JOINER.join(types.stream()
@@ -3,12 +3,12 @@ package dex.util;
 import com.github.rholder.retry.Retryer;
 import com.github.rholder.retry.RetryerBuilder;
 import com.github.rholder.retry.StopStrategies;
+import dex.discord.respond.SendScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sx.blah.discord.handle.impl.events.MessageReceivedEvent;
 
 import java.io.InputStream;
-import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
@@ -43,14 +43,15 @@ public class SnuggleUtils
         return String.format("(hey, %s, enjoy some consolation cats)", nickname);
     }
 
-    public static void respond(final String reply, final MessageReceivedEvent event)
+    public static void respond(final SendScheduler sends, final String reply, final MessageReceivedEvent event,
+            final Deadline deadline)
     {
         try {
             // What even is the internet: http://thecatapi.com/
             try (final InputStream stream = KET_RETRYER.call(
-                    () -> new URL("http://thecatapi.com/api/images/get?format=src&type=jpg").openStream())) {
+                    () -> NetworkUtils.openStream("http://thecatapi.com/api/images/get?format=src&type=jpg", deadline))) {
                 // Extension required for Discord preview
-                event.getMessage().getChannel().sendFile(stream, "cat_tax.jpg", reply);
+                sends.sendFile(event.getMessage().getChannel(), stream, "cat_tax.jpg", reply).join();
             }
         } catch (Exception e) {
             LOG.error("Encountered exception while bein' cute in response to '{}'", event.getMessage().getContent(), e);
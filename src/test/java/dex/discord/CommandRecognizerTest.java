@@ -0,0 +1,66 @@
+package dex.discord;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommandRecognizerTest
+{
+    private final CommandRecognizer recognizer_ = CommandRecognizer.forAllCommands();
+
+    @Test
+    public void recognize_standardName_matchesCommand()
+    {
+        assertEquals(Optional.of(DexCommand.dex), recognizer_.recognize("!dex sneasel"));
+    }
+
+    @Test
+    public void recognize_alternateName_matchesCommand()
+    {
+        assertEquals(Optional.of(DexCommand.wtp), recognizer_.recognize("!who's-that-pokemon 30"));
+    }
+
+    @Test
+    public void recognize_leadingWhitespace_matchesCommand()
+    {
+        assertEquals(Optional.of(DexCommand.help), recognizer_.recognize("  \t!help"));
+    }
+
+    @Test
+    public void recognize_noPrefix_matchesNothing()
+    {
+        assertEquals(Optional.empty(), recognizer_.recognize("dex sneasel"));
+    }
+
+    @Test
+    public void recognize_prefixOfCommand_matchesNothing()
+    {
+        assertEquals(Optional.empty(), recognizer_.recognize("!de sneasel"));
+    }
+
+    @Test
+    public void recognize_commandAsPrefix_matchesNothing()
+    {
+        assertEquals(Optional.empty(), recognizer_.recognize("!dexter"));
+    }
+
+    @Test
+    public void recognize_prefixAlone_matchesNothing()
+    {
+        assertEquals(Optional.empty(), recognizer_.recognize("!"));
+    }
+
+    @Test
+    public void recognize_nonAsciiCharacter_matchesNothing()
+    {
+        assertEquals(Optional.empty(), recognizer_.recognize("!d\u00e9x"));
+    }
+
+    @Test
+    public void recognizeName_alternateNameWithoutPrefix_matchesCommand()
+    {
+        assertEquals(Optional.of(DexCommand.art), recognizer_.recognizeName("official-art"));
+    }
+}
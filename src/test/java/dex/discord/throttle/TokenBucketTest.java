@@ -0,0 +1,85 @@
+package dex.discord.throttle;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest
+{
+    private static class FakeTicker extends Ticker
+    {
+        private long nanos_ = 0;
+
+        @Override
+        public long read()
+        {
+            return nanos_;
+        }
+
+        void advance(final long time, final TimeUnit unit)
+        {
+            nanos_ += unit.toNanos(time);
+        }
+    }
+
+    private final FakeTicker ticker_ = new FakeTicker();
+
+    @Test
+    public void tryAcquire_withinCapacity_admitsBurst()
+    {
+        final TokenBucket bucket = new TokenBucket(BucketLimit.of(3, 1, TimeUnit.SECONDS), ticker_);
+
+        assertTrue(bucket.tryAcquire(1));
+        assertTrue(bucket.tryAcquire(1));
+        assertTrue(bucket.tryAcquire(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void tryAcquire_afterRefillPeriod_admitsAgain()
+    {
+        final TokenBucket bucket = new TokenBucket(BucketLimit.of(1, 1, TimeUnit.SECONDS), ticker_);
+
+        assertTrue(bucket.tryAcquire(1));
+        ticker_.advance(500, TimeUnit.MILLISECONDS);
+        assertFalse(bucket.tryAcquire(1));
+        ticker_.advance(500, TimeUnit.MILLISECONDS);
+        assertTrue(bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void availableTokens_longIdle_capsAtCapacity()
+    {
+        final TokenBucket bucket = new TokenBucket(BucketLimit.of(2, 1, TimeUnit.SECONDS), ticker_);
+
+        bucket.tryAcquire(2);
+        ticker_.advance(1, TimeUnit.HOURS);
+        assertEquals(2.0, bucket.availableTokens(), 0.0);
+    }
+
+    @Test
+    public void nanosUntilAvailable_emptyBucket_waitsForRefill()
+    {
+        final TokenBucket bucket = new TokenBucket(BucketLimit.of(2, 1, TimeUnit.SECONDS), ticker_);
+
+        assertEquals(0, bucket.nanosUntilAvailable(1));
+        bucket.tryAcquire(2);
+        ticker_.advance(250, TimeUnit.MILLISECONDS);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(750), bucket.nanosUntilAvailable(1));
+    }
+
+    @Test
+    public void refund_afterAcquire_restoresToken()
+    {
+        final TokenBucket bucket = new TokenBucket(BucketLimit.of(1, 1, TimeUnit.MINUTES), ticker_);
+
+        assertTrue(bucket.tryAcquire(1));
+        bucket.refund(1);
+        assertTrue(bucket.tryAcquire(1));
+    }
+}
@@ -0,0 +1,97 @@
+package dex.pokemon;
+
+import dex.util.ImageVariants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArtworkArchiveTest
+{
+    @Rule
+    public final TemporaryFolder folder_ = new TemporaryFolder();
+
+    @Test
+    public void get_builtArchive_returnsEachPieceOfArtwork() throws IOException
+    {
+        final Path directory = folder_.newFolder("artwork").toPath();
+        Files.write(directory.resolve("1.png"), new byte[]{1, 2, 3});
+        Files.write(directory.resolve("25.png"), new byte[]{25});
+        Files.write(directory.resolve("notes.txt"), new byte[]{0});
+        final Path archivePath = folder_.getRoot().toPath().resolve("artwork.dexart");
+
+        ArtworkArchive.build(directory, archivePath);
+        final ArtworkArchive archive = ArtworkArchive.open(archivePath);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, contentOf(archive.get(1).get()));
+        assertArrayEquals(new byte[]{25}, contentOf(archive.get(25).get()));
+        assertFalse(archive.get(2).isPresent());
+        assertFalse(archive.get(26).isPresent());
+    }
+
+    @Test
+    public void build_withRenditions_packsOnlyRenditionsSmallerThanTheOriginal() throws IOException
+    {
+        final Path directory = folder_.newFolder("artwork").toPath();
+        final BufferedImage noise = noise(2 * ArtworkCache.MAX_DIMENSION);
+        Files.write(directory.resolve("1.png"), toPng(noise));
+        // Already as small as it gets, so there's nothing to gain from a rendition
+        final byte[] smallest = ImageVariants.smallestPng(
+                noise(ArtworkCache.MAX_DIMENSION), ArtworkCache.MAX_DIMENSION);
+        Files.write(directory.resolve("2.png"), smallest);
+        final Path archivePath = folder_.getRoot().toPath().resolve("artwork.dexart");
+        final Path renditionPath = folder_.getRoot().toPath().resolve("renditions.dexart");
+
+        ArtworkArchive.build(directory, archivePath, renditionPath);
+        final ArtworkArchive renditions = ArtworkArchive.open(renditionPath);
+        final ArtworkCache cache = new ArtworkCache(OfficialArtwork.fromArchive(archivePath), Optional.of(renditions),
+                folder_.newFolder("renditions").toPath(), 1024);
+
+        assertTrue(renditions.get(1).get().remaining() < Files.size(directory.resolve("1.png")));
+        assertFalse(renditions.get(2).isPresent());
+        assertArrayEquals(contentOf(renditions.get(1).get()), contentOf(cache.get(1).get()));
+        // The original is sent straight from its mapping
+        final ByteBuffer original = cache.get(2).get();
+        assertTrue(original.isDirect());
+        assertArrayEquals(smallest, contentOf(original));
+    }
+
+    private static BufferedImage noise(final int size)
+    {
+        final Random random = new Random(size);
+        final BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static byte[] toPng(final BufferedImage image) throws IOException
+    {
+        final ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static byte[] contentOf(final ByteBuffer buffer)
+    {
+        final byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+}
@@ -0,0 +1,51 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import me.sargunvohra.lib.pokekotlin.model.ChainLink;
+import me.sargunvohra.lib.pokekotlin.model.EvolutionChain;
+import me.sargunvohra.lib.pokekotlin.model.NamedApiResource;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EvolutionGraphTest
+{
+    // Eevee evolves into Vaporeon, Jolteon and Flareon; Tauros doesn't evolve at all
+    private static final EvolutionGraph GRAPH = EvolutionGraph.fromChains(ImmutableList.of(
+            new EvolutionChain(67, null, link("eevee", 133,
+                    link("vaporeon", 134), link("jolteon", 135), link("flareon", 136))),
+            new EvolutionChain(60, null, link("tauros", 128))));
+
+    @Test
+    public void fromChains_branchingChain_linksEveryBranch()
+    {
+        assertArrayEquals(new int[]{134, 135, 136}, GRAPH.getFutureEvolutions(133));
+        assertEquals(Optional.of(133), GRAPH.getPriorEvolution(135));
+        assertEquals(Optional.empty(), GRAPH.getPriorEvolution(133));
+        assertEquals(Optional.of("flareon"), GRAPH.getName(136));
+    }
+
+    @Test
+    public void fromChains_singleSpeciesChain_containsSpeciesWithoutEvolutions()
+    {
+        assertTrue(GRAPH.contains(128));
+        assertArrayEquals(new int[0], GRAPH.getFutureEvolutions(128));
+        assertEquals(Optional.empty(), GRAPH.getPriorEvolution(128));
+        // Species numbered between those in the chains aren't in any of them
+        assertFalse(GRAPH.contains(130));
+    }
+
+    private static ChainLink link(final String name, final int id, final ChainLink... evolvesTo)
+    {
+        final List<ChainLink> children = ImmutableList.copyOf(evolvesTo);
+        return new ChainLink(false, new NamedApiResource(name, "pokemon-species", id), Collections.emptyList(),
+                children);
+    }
+}
@@ -0,0 +1,38 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+public class InvertedIndexTest
+{
+    @Test
+    public void get_builtOutOfOrder_valuesAscending()
+    {
+        final InvertedIndex index = new InvertedIndex(ImmutableMap.of(
+                9, new int[]{22, 3},
+                1, new int[]{3},
+                5, new int[]{3, 3}));
+
+        assertArrayEquals(new int[]{1, 5, 9}, index.get(3));
+        assertArrayEquals(new int[]{9}, index.get(22));
+        assertArrayEquals(new int[0], index.get(4));
+    }
+
+    @Test
+    public void put_changedKeys_refilesOnlyThoseKeys()
+    {
+        final InvertedIndex index = new InvertedIndex(ImmutableMap.of(
+                1, new int[]{3, 4},
+                2, new int[]{3}));
+        final int[] unchanged = index.get(3);
+
+        index.put(1, new int[]{3, 40});
+
+        assertSame(unchanged, index.get(3));
+        assertArrayEquals(new int[0], index.get(4));
+        assertArrayEquals(new int[]{1}, index.get(40));
+    }
+}
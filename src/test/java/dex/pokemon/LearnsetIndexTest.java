@@ -0,0 +1,42 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LearnsetIndexTest
+{
+    // Garchomp: Earthquake (89) by level-up (1) at 48 in version group 8, and by machine (4) in 11 and 8
+    private static final LearnsetIndex INDEX = new LearnsetIndex(
+            ImmutableMap.of(445, new long[]{
+                    LearnsetIndex.pack(89, 11, 4, 0),
+                    LearnsetIndex.pack(14, 8, 1, 1),
+                    LearnsetIndex.pack(89, 8, 4, 0),
+                    LearnsetIndex.pack(89, 8, 1, 48),
+                    LearnsetIndex.pack(90, 8, 4, 0)}),
+            ImmutableMap.of(8, "diamond-pearl", 11, "black-white"),
+            ImmutableMap.of(1, "level-up", 4, "machine"));
+
+    @Test
+    public void getLearnings_learnedSeveralWays_inVersionGroupThenMethodOrder()
+    {
+        assertArrayEquals(new long[]{
+                LearnsetIndex.pack(89, 8, 1, 48),
+                LearnsetIndex.pack(89, 8, 4, 0),
+                LearnsetIndex.pack(89, 11, 4, 0)}, INDEX.getLearnings(445, 89));
+        assertArrayEquals(new long[0], INDEX.getLearnings(445, 15));
+    }
+
+    @Test
+    public void pack_anyTuple_readsBackEachField()
+    {
+        final long tuple = INDEX.getLearnings(445, 89)[0];
+
+        assertEquals(89, LearnsetIndex.moveOf(tuple));
+        assertEquals("diamond-pearl", INDEX.getVersionGroupName(tuple).get());
+        assertEquals("level-up", INDEX.getMethodName(tuple).get());
+        assertEquals(48, LearnsetIndex.levelOf(tuple));
+    }
+}
@@ -0,0 +1,53 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MoveIndexTest
+{
+    // Rows: Tackle, Growl, Flamethrower, Fire Blast, Surf; Growl has no power
+    private static final MoveIndex INDEX = new MoveIndex(
+            new String[]{"Tackle", "Growl", "Flamethrower", "Fire Blast", "Surf"},
+            new int[][]{
+                    {40, MoveIndex.NONE, 90, 110, 90},
+                    {100, 100, 100, 85, 100},
+                    {35, 40, 15, 5, 15}},
+            new int[]{1, 1, 0, 0, 2},
+            new int[]{0, 2, 1, 1, 1},
+            ImmutableList.of("fire", "normal", "water"),
+            ImmutableList.of("physical", "special", "status"));
+
+    @Test
+    public void search_tieAtLimit_keepsEarlierRow()
+    {
+        // Flamethrower and Surf tie for second; the earlier row wins the last place
+        assertArrayEquals(new int[]{3, 2}, INDEX.search(new MoveIndex.Filter(), MoveIndex.Column.power, 2));
+    }
+
+    @Test
+    public void search_rankingByMissingNumber_ranksItLast()
+    {
+        assertArrayEquals(new int[]{3, 2, 4, 0, 1},
+                INDEX.search(new MoveIndex.Filter(), MoveIndex.Column.power, 10));
+    }
+
+    @Test
+    public void search_boundOnMissingNumber_excludesMove()
+    {
+        final MoveIndex.Filter weak = new MoveIndex.Filter().atMost(MoveIndex.Column.power, 50);
+
+        assertArrayEquals(new int[]{0}, INDEX.search(weak, MoveIndex.Column.pp, 10));
+        assertEquals(1, INDEX.count(weak));
+    }
+
+    @Test
+    public void search_ofType_ranksOnlyThatType()
+    {
+        final MoveIndex.Filter fire = new MoveIndex.Filter().ofType(INDEX.typeIndex("Fire").get());
+
+        assertArrayEquals(new int[]{2, 3}, INDEX.search(fire, MoveIndex.Column.accuracy, 10));
+    }
+}
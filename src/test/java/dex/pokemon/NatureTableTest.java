@@ -0,0 +1,31 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class NatureTableTest
+{
+    private static final NatureTable NATURES = NatureTable.of(ImmutableMap.of(
+            "Jolly", new String[]{"speed", "special-attack"},
+            "Hardy", new String[]{"attack", "attack"},
+            "Quirky", new String[]{null, null}));
+
+    @Test
+    public void getNature_byEffect_findsNature()
+    {
+        assertEquals(Optional.of("jolly"), NATURES.getNature(
+                NatureTable.statIndex("spe").get(), NatureTable.statIndex("SpA").get()));
+    }
+
+    @Test
+    public void getRaisedStat_neutralNature_isEmpty()
+    {
+        assertEquals(Optional.empty(), NATURES.getRaisedStat("hardy"));
+        assertEquals(ImmutableList.of("hardy", "quirky"), NATURES.getNeutralNatures());
+    }
+}
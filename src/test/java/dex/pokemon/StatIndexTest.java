@@ -0,0 +1,47 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StatIndexTest
+{
+    private static final StatIndex INDEX = new StatIndex(
+            ImmutableList.of("Charizard", "Blastoise", "Arcanine", "Moltres"),
+            ImmutableList.of(
+                    new int[]{78, 84, 78, 109, 85, 100},
+                    new int[]{79, 83, 100, 85, 105, 78},
+                    new int[]{90, 110, 80, 100, 80, 95},
+                    new int[]{90, 100, 90, 125, 85, 90}),
+            ImmutableList.of(
+                    ImmutableList.of("fire", "flying"),
+                    ImmutableList.of("water"),
+                    ImmutableList.of("fire"),
+                    ImmutableList.of("fire", "flying")));
+
+    @Test
+    public void top_ofType_skipsOtherTypesInRankOrder()
+    {
+        final int speed = StatIndex.statIndex("spe").get();
+
+        assertArrayEquals(new int[]{0, 2}, INDEX.top(speed, INDEX.typeBit("fire").get(), 2));
+    }
+
+    @Test
+    public void top_total_ranksBySumOfStats()
+    {
+        final int total = StatIndex.statIndex("bst").get();
+        final long fireFlying = INDEX.typeBit("fire").get() | INDEX.typeBit("flying").get();
+
+        assertArrayEquals(new int[]{3, 0}, INDEX.top(total, fireFlying, 10));
+    }
+
+    @Test
+    public void statIndex_natureStatAlias_skipsHp()
+    {
+        assertEquals("special-defense", StatIndex.STATS.get(StatIndex.statIndex("Sp.Def").get()));
+        assertEquals("hp", StatIndex.STATS.get(StatIndex.statIndex("HP").get()));
+    }
+}
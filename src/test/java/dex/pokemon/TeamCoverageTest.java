@@ -0,0 +1,33 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TeamCoverageTest
+{
+    private static final TypeChart CHART = TestTypeCharts.FIVE_TYPES;
+
+    @Test
+    public void of_twoMembers_setsOneBitPerMember()
+    {
+        final int fire = CHART.indexOf("fire").get();
+        final int water = CHART.indexOf("water").get();
+        final int grass = CHART.indexOf("grass").get();
+        final int electric = CHART.indexOf("electric").get();
+        final int ground = CHART.indexOf("ground").get();
+
+        final TeamCoverage coverage = TeamCoverage.of(CHART,
+                ImmutableList.of(new int[]{water, ground}, new int[]{fire}));
+
+        assertEquals(0b01, coverage.getWeakMembers(grass));
+        assertEquals(0b11, coverage.getResistantMembers(fire));
+        assertEquals(0b01, coverage.getImmuneMembers(electric));
+        assertTrue(coverage.isCovered(grass));
+        assertFalse(coverage.isCovered(water));
+        assertEquals(4, coverage.getCoveredCount());
+    }
+}
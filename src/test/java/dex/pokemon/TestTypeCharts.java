@@ -0,0 +1,23 @@
+package dex.pokemon;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Small hand-written type charts for tests, taken from the real one
+ */
+final class TestTypeCharts
+{
+    // Attacker rows, defender columns: fire, water, grass, electric, ground
+    static final TypeChart FIVE_TYPES = new TypeChart(
+            ImmutableList.of("fire", "water", "grass", "electric", "ground"),
+            new float[]{
+                    0.5f, 0.5f, 2.0f, 1.0f, 1.0f,
+                    2.0f, 0.5f, 0.5f, 1.0f, 2.0f,
+                    0.5f, 2.0f, 0.5f, 1.0f, 2.0f,
+                    1.0f, 2.0f, 0.5f, 0.5f, 0.0f,
+                    2.0f, 1.0f, 0.5f, 2.0f, 1.0f});
+
+    private TestTypeCharts()
+    {
+    }
+}
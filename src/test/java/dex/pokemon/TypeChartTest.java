@@ -0,0 +1,27 @@
+package dex.pokemon;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TypeChartTest
+{
+    private static final TypeChart CHART = TestTypeCharts.FIVE_TYPES;
+
+    @Test
+    public void multiplier_dualType_multipliesBothTypes()
+    {
+        final int grass = CHART.indexOf("Grass").get();
+
+        assertEquals(4.0f, CHART.multiplier(grass, CHART.indexOf("water").get(), CHART.indexOf("ground").get()), 0);
+    }
+
+    @Test
+    public void superEffectiveAgainst_dualType_listsOnlyNetWeaknesses()
+    {
+        final int[] attackers = CHART.superEffectiveAgainst(CHART.indexOf("water").get(), CHART.indexOf("ground").get());
+
+        assertArrayEquals(new int[]{CHART.indexOf("grass").get()}, attackers);
+    }
+}
@@ -0,0 +1,75 @@
+package dex.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BackgroundBuildTest
+{
+    @Test
+    public void start_firstAttemptFails_retriesUntilBuilt()
+            throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        final AtomicInteger attempts = new AtomicInteger();
+        try {
+            final BackgroundBuild<String> build = BackgroundBuild.start("test index", () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("The API is down!");
+                }
+                return "built";
+            }, executor, 1, TimeUnit.MILLISECONDS);
+
+            assertEquals("built", build.whenBuilt().get(5, TimeUnit.SECONDS));
+            assertEquals("built", build.getIfBuilt().get());
+            assertFalse(build.hasFailed());
+            assertEquals(2, attempts.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void map_firstAttemptFails_partFailsThenIsBuilt()
+            throws InterruptedException, ExecutionException, TimeoutException
+    {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch retried = new CountDownLatch(1);
+        final CountDownLatch apiBack = new CountDownLatch(1);
+        try {
+            final BackgroundBuild<String> build = BackgroundBuild.start("test indexes", () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("The API is down!");
+                }
+                retried.countDown();
+                try {
+                    apiBack.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "built";
+            }, executor, 1, TimeUnit.MILLISECONDS);
+            final BackgroundBuild<Integer> part = build.map("test index", String::length);
+
+            assertTrue(retried.await(5, TimeUnit.SECONDS));
+            assertTrue(part.hasFailed());
+            assertEquals("test index", part.getName());
+
+            apiBack.countDown();
+            assertEquals(Integer.valueOf(5), part.whenBuilt().get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
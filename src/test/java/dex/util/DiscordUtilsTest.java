@@ -0,0 +1,38 @@
+package dex.util;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DiscordUtilsTest
+{
+    @Test
+    public void splitIntoMessages_shortContent_singleMessage()
+    {
+        assertEquals(Collections.singletonList("Pikachu\nRaichu"), DiscordUtils.splitIntoMessages("Pikachu\nRaichu"));
+    }
+
+    @Test
+    public void splitIntoMessages_manyLines_packsLinesGreedily()
+    {
+        final String line = Strings.repeat("a", 999);
+        final List<String> messages = DiscordUtils.splitIntoMessages(line + "\r\n" + line + "\r\n" + line);
+
+        assertEquals(Arrays.asList(line + "\r\n" + line, line), messages);
+    }
+
+    @Test
+    public void splitIntoMessages_overlongLine_breaksMidLine()
+    {
+        final List<String> messages = DiscordUtils.splitIntoMessages(Strings.repeat("a", 4500));
+
+        assertEquals(3, messages.size());
+        assertEquals(DiscordUtils.MAX_MESSAGE_LENGTH, messages.get(0).length());
+        assertEquals(500, messages.get(2).length());
+    }
+}
@@ -0,0 +1,55 @@
+package dex.util;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImageUtilsTest
+{
+    @Test
+    public void colorImage_intArgbImage_keepsTransparency()
+    {
+        final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFF123456);
+        image.setRGB(1, 0, 0x00654321);
+
+        ImageUtils.colorImage(image, Color.white);
+
+        assertEquals(0xFFFFFFFF, image.getRGB(0, 0));
+        assertEquals(0x00FFFFFF, image.getRGB(1, 0));
+    }
+
+    @Test
+    public void colorImage_byteAbgrImage_keepsTransparency()
+    {
+        final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_4BYTE_ABGR);
+        image.setRGB(0, 0, 0xFF123456);
+        image.setRGB(1, 0, 0x80654321);
+
+        ImageUtils.colorImage(image, Color.red);
+
+        assertEquals(0xFFFF0000, image.getRGB(0, 0));
+        assertEquals(0x80FF0000, image.getRGB(1, 0));
+    }
+
+    @Test
+    public void stack_differentWidths_leftAlignsOnTransparency()
+    {
+        final BufferedImage wide = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        wide.setRGB(1, 0, 0xFF123456);
+        final BufferedImage narrow = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        narrow.setRGB(0, 0, 0xFF654321);
+
+        final BufferedImage stacked = ImageUtils.stack(Arrays.asList(wide, narrow));
+
+        assertEquals(2, stacked.getWidth());
+        assertEquals(2, stacked.getHeight());
+        assertEquals(0xFF123456, stacked.getRGB(1, 0));
+        assertEquals(0xFF654321, stacked.getRGB(0, 1));
+        assertEquals(0x00000000, stacked.getRGB(1, 1));
+    }
+}
@@ -0,0 +1,50 @@
+package dex.util;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ImageVariantsTest
+{
+    @Test
+    public void toIndexed_fewColours_keepsEveryPixel()
+    {
+        final BufferedImage image = new BufferedImage(3, 1, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFFFFFFFF);
+        image.setRGB(1, 0, 0x80FFFFFF);
+        image.setRGB(2, 0, 0x00123456);
+
+        final Optional<BufferedImage> indexed = ImageVariants.toIndexed(image);
+
+        assertTrue(indexed.isPresent());
+        assertEquals(0xFFFFFFFF, indexed.get().getRGB(0, 0));
+        assertEquals(0x80FFFFFF, indexed.get().getRGB(1, 0));
+        assertEquals(0, indexed.get().getRGB(2, 0) >>> 24);
+    }
+
+    @Test
+    public void toIndexed_tooManyColours_isEmpty()
+    {
+        final BufferedImage image = new BufferedImage(300, 1, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            image.setRGB(x, 0, 0xFF000000 | x);
+        }
+
+        assertFalse(ImageVariants.toIndexed(image).isPresent());
+    }
+
+    @Test
+    public void downscale_largeImage_fitsWithinMaximum()
+    {
+        final BufferedImage scaled = ImageVariants.downscale(
+                new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB), 400);
+
+        assertEquals(400, scaled.getWidth());
+        assertEquals(200, scaled.getHeight());
+    }
+}
@@ -0,0 +1,70 @@
+package dex.util;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NetworkUtilsTest
+{
+    @Test
+    public void openStream_bodyTricklesPastDeadline_throwsDeadlineExceeded() throws IOException
+    {
+        try (final ServerSocket server = new ServerSocket(0)) {
+            // Every byte arrives well within a read timeout, but the whole body never arrives in time
+            final Thread trickler = new Thread(() -> trickle(server, 50));
+            trickler.setDaemon(true);
+            trickler.start();
+
+            final long start = System.nanoTime();
+            try (final InputStream stream = NetworkUtils.openStream(
+                    "http://localhost:" + server.getLocalPort() + "/", Deadline.after(300, TimeUnit.MILLISECONDS))) {
+                ByteStreams.toByteArray(stream);
+                fail("Read the whole body despite the deadline!");
+            } catch (DeadlineExceededException e) {
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+            }
+        }
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void openStream_serverNeverResponds_throwsDeadlineExceeded() throws IOException
+    {
+        try (final ServerSocket server = new ServerSocket(0)) {
+            // Connections are accepted by the backlog, but nothing is ever sent
+            NetworkUtils.openStream("http://localhost:" + server.getLocalPort() + "/",
+                    Deadline.after(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static void trickle(final ServerSocket server, final long intervalMillis)
+    {
+        try (final Socket socket = server.accept()) {
+            final BufferedReader request = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            while (!request.readLine().isEmpty()) {
+                // Skip the request headers
+            }
+            final OutputStream response = socket.getOutputStream();
+            response.write("HTTP/1.1 200 OK\r\nContent-Length: 100000\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            while (true) {
+                response.write('x');
+                response.flush();
+                Thread.sleep(intervalMillis);
+            }
+        } catch (IOException | InterruptedException e) {
+            // The client hung up
+        }
+    }
+}
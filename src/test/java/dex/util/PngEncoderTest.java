@@ -0,0 +1,40 @@
+package dex.util;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PngEncoderTest
+{
+    @Test
+    public void encode_repeatedly_roundTripsEachImage() throws IOException
+    {
+        // The second, smaller image reuses the first's writer and buffer
+        for (final int size : new int[]{64, 8}) {
+            final BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(size - 1, size - 1, 0xFF00FF00);
+
+            final byte[] encoded = PngEncoder.encode(image, PngEncoder.Compression.smallest);
+            final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(encoded));
+
+            assertEquals(size, decoded.getWidth());
+            assertEquals(0xFF00FF00, decoded.getRGB(size - 1, size - 1));
+            assertEquals(0, decoded.getRGB(0, 0));
+        }
+    }
+
+    @Test
+    public void encode_fastest_stillCompresses() throws IOException
+    {
+        // Stored uncompressed, a blank image this size would take at least a byte per pixel
+        final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+
+        assertTrue(PngEncoder.encode(image, PngEncoder.Compression.fastest).length < 256 * 256);
+    }
+}